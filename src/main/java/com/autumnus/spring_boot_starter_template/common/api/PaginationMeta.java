@@ -1,14 +1,22 @@
 package com.autumnus.spring_boot_starter_template.common.api;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Getter;
 
+/**
+ * Offset pages fill {@code page}, {@code totalElements} and {@code totalPages}; keyset (cursor) pages fill
+ * {@code hasNext} and {@code nextCursor} instead, since they never count the table.
+ */
 @Getter
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PaginationMeta {
 
-    private final long page;
+    private final Long page;
     private final long size;
-    private final long totalElements;
-    private final long totalPages;
+    private final Long totalElements;
+    private final Long totalPages;
+    private final Boolean hasNext;
+    private final String nextCursor;
 }
@@ -5,8 +5,10 @@ import com.autumnus.spring_boot_starter_template.modules.users.entity.Role;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
 import com.autumnus.spring_boot_starter_template.modules.users.repository.RoleRepository;
 import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.service.RolesChangedEvent;
 import com.autumnus.spring_boot_starter_template.modules.users.service.UserService;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -22,7 +24,8 @@ public class DevDataSeeder {
     CommandLineRunner initDatabase(
             RoleRepository roleRepository,
             UserRepository userRepository,
-            UserService userService
+            UserService userService,
+            ApplicationEventPublisher eventPublisher
     ) {
         return args -> {
             if (roleRepository.count() == 0) {
@@ -32,6 +35,7 @@ public class DevDataSeeder {
                     role.setDescription(roleName.name().toLowerCase() + " role");
                     roleRepository.save(role);
                 }
+                eventPublisher.publishEvent(new RolesChangedEvent());
             }
 
             if (userRepository.count() == 0) {
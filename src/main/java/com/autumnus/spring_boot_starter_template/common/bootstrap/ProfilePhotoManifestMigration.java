@@ -0,0 +1,123 @@
+package com.autumnus.spring_boot_starter_template.common.bootstrap;
+
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaManifest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Locale;
+
+/**
+ * Moves the profile photo manifest to {@code users.profile_photo_manifest_json} ({@code jsonb}) on PostgreSQL without
+ * touching the legacy {@code profile_photo_manifest} column (a large object, {@code oid}, or text) that the previous
+ * version reads. On startup, manifests found only in the legacy column are copied into the new one and
+ * {@code users.profile_photo_url} is filled for rows written before it existed. While the legacy column exists,
+ * {@link #writeLegacy} keeps it in step with profile photo changes, so older instances see them during a rolling
+ * deploy and a rollback stays possible. Drop the legacy column, and this class, in a later release.
+ */
+@Component
+public class ProfilePhotoManifestMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfilePhotoManifestMigration.class);
+    private static final String TABLE = "users";
+    private static final String LEGACY_COLUMN = "profile_photo_manifest";
+    private static final String COLUMN = "profile_photo_manifest_json";
+    private static final String URL_COLUMN = "profile_photo_url";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private volatile String legacyType;
+
+    public ProfilePhotoManifestMigration(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            EntityManagerFactory entityManagerFactory
+    ) {
+        // The entity manager factory is injected only so the schema update has run before this bean initialises.
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        legacyType = postgresColumnType(LEGACY_COLUMN);
+        if (legacyType == null) {
+            return;
+        }
+        final String legacyJson = "oid".equals(legacyType)
+                ? "convert_from(lo_get(" + LEGACY_COLUMN + "), 'UTF8')::jsonb"
+                : LEGACY_COLUMN + "::jsonb";
+        if (exists(COLUMN + " is null and " + LEGACY_COLUMN + " is not null")) {
+            final int copied = jdbcTemplate.update("update " + TABLE + " set " + COLUMN + " = " + legacyJson
+                    + " where " + COLUMN + " is null and " + LEGACY_COLUMN + " is not null");
+            log.info("Copied {} profile photo manifests from {}.{} ({}) to {}", copied, TABLE, LEGACY_COLUMN,
+                    legacyType, COLUMN);
+        }
+        if (exists(COLUMN + " is not null and " + URL_COLUMN + " is null")) {
+            final int backfilled = jdbcTemplate.update("update " + TABLE + " set " + URL_COLUMN + " = " + COLUMN
+                    + " -> 'original' ->> 'url' where " + COLUMN + " is not null and " + URL_COLUMN + " is null");
+            log.info("Backfilled {}.{} for {} users", TABLE, URL_COLUMN, backfilled);
+        }
+    }
+
+    /**
+     * Writes the user's manifest to the legacy column in its original format; does nothing once the column is gone
+     * or on databases other than PostgreSQL. Must run inside the transaction that updates the user.
+     */
+    public void writeLegacy(Long userId, MediaManifest manifest) {
+        final String type = legacyType;
+        if (type == null) {
+            return;
+        }
+        final String json = manifest != null ? toJson(manifest) : null;
+        if (!"oid".equals(type)) {
+            jdbcTemplate.update("update " + TABLE + " set " + LEGACY_COLUMN + " = cast(? as " + type + ") where id = ?",
+                    json, userId);
+            return;
+        }
+        jdbcTemplate.queryForList("select lo_unlink(" + LEGACY_COLUMN + ") from " + TABLE + " where id = ? and "
+                + LEGACY_COLUMN + " is not null", userId);
+        if (json == null) {
+            jdbcTemplate.update("update " + TABLE + " set " + LEGACY_COLUMN + " = null where id = ?", userId);
+        } else {
+            jdbcTemplate.update("update " + TABLE + " set " + LEGACY_COLUMN
+                    + " = lo_from_bytea(0, convert_to(?, 'UTF8')) where id = ?", json, userId);
+        }
+    }
+
+    private boolean exists(String condition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from " + TABLE + " where " + condition + ")", Boolean.class));
+    }
+
+    private String toJson(MediaManifest manifest) {
+        try {
+            return objectMapper.writeValueAsString(manifest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize media manifest", e);
+        }
+    }
+
+    /**
+     * The column's type name on PostgreSQL, or {@code null} on other databases or when the column does not exist.
+     */
+    private String postgresColumnType(String column) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            final DatabaseMetaData metaData = connection.getMetaData();
+            if (!"PostgreSQL".equalsIgnoreCase(metaData.getDatabaseProductName())) {
+                return null;
+            }
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, TABLE, column)) {
+                return columns.next() ? columns.getString("TYPE_NAME").toLowerCase(Locale.ROOT) : null;
+            }
+        });
+    }
+}
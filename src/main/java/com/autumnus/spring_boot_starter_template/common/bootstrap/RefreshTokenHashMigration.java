@@ -0,0 +1,109 @@
+package com.autumnus.spring_boot_starter_template.common.bootstrap;
+
+import com.autumnus.spring_boot_starter_template.common.security.TokenHash;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Moves {@code refresh_tokens} from storing the signed JWT to storing its SHA-256 digest. While the legacy
+ * {@code token} column exists it is made nullable and, if any row still lacks a digest, {@code token_hash} is
+ * backfilled in batches; {@code token} itself keeps being written, so instances of the previous version can keep
+ * using it during a rolling deploy and a rollback stays possible. Dropping {@code token} is left to a later release; once it is gone,
+ * {@code token_hash} is made {@code NOT NULL}. Runs after Hibernate has updated the schema and before the application
+ * serves requests.
+ */
+@Component
+public class RefreshTokenHashMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenHashMigration.class);
+    private static final String TABLE = "refresh_tokens";
+    private static final int BATCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RefreshTokenHashMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        // The entity manager factory is injected only so the schema update has run before this bean initialises.
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        final Column legacy = column("token");
+        final Column hash = column("token_hash");
+        if (hash == null) {
+            return;
+        }
+        if (legacy != null) {
+            if (!legacy.nullable()) {
+                jdbcTemplate.execute("alter table " + TABLE + " alter column token drop not null");
+            }
+            if (hasUnhashedRows()) {
+                log.info("Backfilled token_hash for {} refresh tokens", backfill());
+            }
+            return;
+        }
+        if (hash.nullable()) {
+            jdbcTemplate.execute("delete from " + TABLE + " where token_hash is null");
+            jdbcTemplate.execute("alter table " + TABLE + " alter column token_hash set not null");
+        }
+    }
+
+    private boolean hasUnhashedRows() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from " + TABLE + " where token_hash is null and token is not null)",
+                Boolean.class));
+    }
+
+    private long backfill() {
+        long migrated = 0;
+        long lastId = 0;
+        while (true) {
+            final List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            jdbcTemplate.query(
+                    "select id, token from " + TABLE
+                            + " where token_hash is null and token is not null and id > ? order by id limit ?",
+                    (ResultSet rs) -> {
+                        batch.add(new Object[]{TokenHash.sha256(rs.getString("token")), rs.getLong("id")});
+                    },
+                    lastId,
+                    BATCH_SIZE);
+            if (batch.isEmpty()) {
+                return migrated;
+            }
+            jdbcTemplate.batchUpdate("update " + TABLE + " set token_hash = ? where id = ?", batch);
+            migrated += batch.size();
+            lastId = (long) batch.get(batch.size() - 1)[1];
+        }
+    }
+
+    private Column column(String name) {
+        return jdbcTemplate.execute((ConnectionCallback<Column>) connection -> {
+            final DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : List.of(TABLE, TABLE.toUpperCase(Locale.ROOT))) {
+                final String columnName = table.equals(TABLE) ? name : name.toUpperCase(Locale.ROOT);
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, columnName)) {
+                    if (columns.next()) {
+                        return new Column(Objects.equals(columns.getString("IS_NULLABLE"), "YES"));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private record Column(boolean nullable) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.autumnus.spring_boot_starter_template.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "application.maintenance")
+public class MaintenanceProperties {
+
+    private final Cleanup cleanup = new Cleanup();
+
+    public Cleanup getCleanup() {
+        return cleanup;
+    }
+
+    /**
+     * Periodic purge of expired refresh, email-verification, password-reset and idempotency records. With
+     * {@code lock: redis} only the node holding the Redis lock runs a given pass.
+     */
+    public static class Cleanup {
+
+        private boolean enabled = true;
+        private Duration interval = Duration.ofHours(1);
+        private Duration initialDelay = Duration.ofMinutes(1);
+        private int batchSize = 1_000;
+        private Lock lock = Lock.REDIS;
+        private Duration lockTtl = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Lock getLock() {
+            return lock;
+        }
+
+        public void setLock(Lock lock) {
+            this.lock = lock;
+        }
+
+        public Duration getLockTtl() {
+            return lockTtl;
+        }
+
+        public void setLockTtl(Duration lockTtl) {
+            this.lockTtl = lockTtl;
+        }
+
+        public enum Lock {
+            NONE,
+            REDIS
+        }
+    }
+}
@@ -4,13 +4,32 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 @Configuration
 @ConfigurationProperties(prefix = "application.rate-limit")
 public class RateLimitingProperties {
 
+    private Mode mode = Mode.LOCAL;
     private long capacity = 100;
     private Duration refillPeriod = Duration.ofMinutes(1);
+    private long maxBuckets = 100_000;
+    private Duration bucketIdleTimeout = Duration.ofMinutes(10);
+    private List<KeyDimension> key = new ArrayList<>(List.of(KeyDimension.USER, KeyDimension.IP, KeyDimension.DEVICE));
+    private List<Policy> policies = new ArrayList<>();
+    private final PreAuth preAuth = new PreAuth();
+    private final Redis redis = new Redis();
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
 
     public long getCapacity() {
         return capacity;
@@ -27,4 +46,192 @@ public class RateLimitingProperties {
     public void setRefillPeriod(Duration refillPeriod) {
         this.refillPeriod = refillPeriod;
     }
+
+    public long getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Duration getBucketIdleTimeout() {
+        return bucketIdleTimeout;
+    }
+
+    public void setBucketIdleTimeout(Duration bucketIdleTimeout) {
+        this.bucketIdleTimeout = bucketIdleTimeout;
+    }
+
+    public List<KeyDimension> getKey() {
+        return key;
+    }
+
+    public void setKey(List<KeyDimension> key) {
+        this.key = key;
+    }
+
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<Policy> policies) {
+        this.policies = policies;
+    }
+
+    public PreAuth getPreAuth() {
+        return preAuth;
+    }
+
+    public Redis getRedis() {
+        return redis;
+    }
+
+    public enum Mode {
+        LOCAL,
+        REDIS
+    }
+
+    public enum KeyDimension {
+        USER,
+        IP,
+        DEVICE
+    }
+
+    /**
+     * Overrides the default quota for routes matching {@code pattern}. Patterns are matched against the handler's route
+     * template (e.g. {@code /api/v1/users/{id}}), and the first matching entry wins.
+     */
+    public static class Policy {
+
+        private String pattern;
+        private Set<String> methods = Set.of();
+        private String role;
+        private Long capacity;
+        private Duration refillPeriod;
+        private Set<KeyDimension> key = EnumSet.noneOf(KeyDimension.class);
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public Set<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(Set<String> methods) {
+            this.methods = methods;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        public Long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(Long capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getRefillPeriod() {
+            return refillPeriod;
+        }
+
+        public void setRefillPeriod(Duration refillPeriod) {
+            this.refillPeriod = refillPeriod;
+        }
+
+        public Set<KeyDimension> getKey() {
+            return key;
+        }
+
+        public void setKey(Set<KeyDimension> key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Coarse per-IP quota enforced before the bearer token is parsed. It should be well above what a legitimate client
+     * needs across all routes; its job is to shed floods before any signature verification happens.
+     */
+    public static class PreAuth {
+
+        private boolean enabled = true;
+        private long capacity = 300;
+        private Duration refillPeriod = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getRefillPeriod() {
+            return refillPeriod;
+        }
+
+        public void setRefillPeriod(Duration refillPeriod) {
+            this.refillPeriod = refillPeriod;
+        }
+    }
+
+    public static class Redis {
+
+        private String keyPrefix = "rate-limit:";
+        private long maxUnsynchronizedTokens = 10;
+        private Duration maxUnsynchronizedTimeout = Duration.ofMillis(500);
+        private Duration requestTimeout = Duration.ofSeconds(1);
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public long getMaxUnsynchronizedTokens() {
+            return maxUnsynchronizedTokens;
+        }
+
+        public void setMaxUnsynchronizedTokens(long maxUnsynchronizedTokens) {
+            this.maxUnsynchronizedTokens = maxUnsynchronizedTokens;
+        }
+
+        public Duration getMaxUnsynchronizedTimeout() {
+            return maxUnsynchronizedTimeout;
+        }
+
+        public void setMaxUnsynchronizedTimeout(Duration maxUnsynchronizedTimeout) {
+            this.maxUnsynchronizedTimeout = maxUnsynchronizedTimeout;
+        }
+
+        public Duration getRequestTimeout() {
+            return requestTimeout;
+        }
+
+        public void setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+    }
 }
@@ -0,0 +1,13 @@
+package com.autumnus.spring_boot_starter_template.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} methods for the whole application; each job decides with its own
+ * {@code @ConditionalOnProperty} whether it is registered at all.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -4,6 +4,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 @Configuration
@@ -15,12 +16,21 @@ public class SecurityProperties {
     private Duration refreshTokenTtl = Duration.ofDays(7);
     private Duration emailVerificationTokenTtl = Duration.ofHours(24);
     private Duration passwordResetTokenTtl = Duration.ofHours(1);
+    private boolean compactClaims = false;
     private List<String> publicEndpoints = List.of(
-            "/actuator/**",
+            "/actuator/health/**",
+            "/actuator/info",
             "/swagger-ui/**",
             "/v3/api-docs/**",
-            "/api/v1/auth/**"
+            "/api/v1/auth/**",
+            "/api/v1/media/**",
+            "/.well-known/**"
     );
+    private final AuthenticationCache authenticationCache = new AuthenticationCache();
+    private final PrincipalCache principalCache = new PrincipalCache();
+    private final Signing signing = new Signing();
+    private final Revocation revocation = new Revocation();
+    private final PasswordHashing passwordHashing = new PasswordHashing();
 
     public String getJwtSecret() {
         return jwtSecret;
@@ -62,6 +72,14 @@ public class SecurityProperties {
         this.passwordResetTokenTtl = passwordResetTokenTtl;
     }
 
+    public boolean isCompactClaims() {
+        return compactClaims;
+    }
+
+    public void setCompactClaims(boolean compactClaims) {
+        this.compactClaims = compactClaims;
+    }
+
     public List<String> getPublicEndpoints() {
         return publicEndpoints;
     }
@@ -69,4 +87,296 @@ public class SecurityProperties {
     public void setPublicEndpoints(List<String> publicEndpoints) {
         this.publicEndpoints = publicEndpoints;
     }
+
+    public AuthenticationCache getAuthenticationCache() {
+        return authenticationCache;
+    }
+
+    public PrincipalCache getPrincipalCache() {
+        return principalCache;
+    }
+
+    public Signing getSigning() {
+        return signing;
+    }
+
+    public Revocation getRevocation() {
+        return revocation;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    /**
+     * Verified bearer tokens are cached until their {@code exp}, capped by {@code maxTtl}.
+     */
+    public static class AuthenticationCache {
+
+        private boolean enabled = true;
+        private long maximumSize = 100_000;
+        private Duration maxTtl = Duration.ofMinutes(15);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getMaxTtl() {
+            return maxTtl;
+        }
+
+        public void setMaxTtl(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+    }
+
+    /**
+     * User principals looked up by login name or id are cached for {@code ttl}. Changes made on this node evict them
+     * when they commit; changes made on other nodes are seen once the entry expires.
+     */
+    public static class PrincipalCache {
+
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Token signing setup. {@code HS256} signs with {@code jwt-secret}; {@code ES256} and {@code EdDSA} sign with the
+     * private key of {@code active-key-id} and publish every configured public key at {@code /.well-known/jwks.json},
+     * so keys can be rotated by adding the new key, switching {@code active-key-id}, and removing the old entry once
+     * its tokens have expired.
+     */
+    public static class Signing {
+
+        private Algorithm algorithm = Algorithm.HS256;
+        private String activeKeyId;
+        private List<Key> keys = new ArrayList<>();
+
+        public Algorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(Algorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public String getActiveKeyId() {
+            return activeKeyId;
+        }
+
+        public void setActiveKeyId(String activeKeyId) {
+            this.activeKeyId = activeKeyId;
+        }
+
+        public List<Key> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(List<Key> keys) {
+            this.keys = keys;
+        }
+
+        public enum Algorithm {
+            HS256,
+            ES256,
+            EDDSA
+        }
+
+        /**
+         * PEM (or bare base64) encoded keys: PKCS#8 for {@code private-key}, X.509 SubjectPublicKeyInfo for
+         * {@code public-key}. Retired keys only need the public part.
+         */
+        public static class Key {
+
+            private String id;
+            private String privateKey;
+            private String publicKey;
+
+            public String getId() {
+                return id;
+            }
+
+            public void setId(String id) {
+                this.id = id;
+            }
+
+            public String getPrivateKey() {
+                return privateKey;
+            }
+
+            public void setPrivateKey(String privateKey) {
+                this.privateKey = privateKey;
+            }
+
+            public String getPublicKey() {
+                return publicKey;
+            }
+
+            public void setPublicKey(String publicKey) {
+                this.publicKey = publicKey;
+            }
+        }
+    }
+
+    /**
+     * In-memory token revocation: a per-user "issued before" watermark plus a Bloom filter of revoked refresh tokens
+     * sized for {@code expected-revoked-tokens} per refresh-token lifetime. With {@code sync: redis} every node
+     * publishes its revocations, user changes and role changes on {@code channel}; otherwise nodes only learn of other
+     * nodes' revocations at startup.
+     */
+    public static class Revocation {
+
+        private Sync sync = Sync.NONE;
+        private String channel = "auth:token-revocations";
+        private long expectedRevokedTokens = 100_000;
+        private double falsePositiveRate = 0.001;
+
+        public Sync getSync() {
+            return sync;
+        }
+
+        public void setSync(Sync sync) {
+            this.sync = sync;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public long getExpectedRevokedTokens() {
+            return expectedRevokedTokens;
+        }
+
+        public void setExpectedRevokedTokens(long expectedRevokedTokens) {
+            this.expectedRevokedTokens = expectedRevokedTokens;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public enum Sync {
+            NONE,
+            REDIS
+        }
+    }
+
+    /**
+     * BCrypt runs on a dedicated pool of {@code threads} (0 = one per CPU) with at most {@code queue-capacity} waiting
+     * tasks. Unless {@code cost} is fixed, the work factor is calibrated at startup to the highest value in
+     * [{@code min-cost}, {@code max-cost}] that hashes within {@code target-latency}; hashes below it are upgraded on
+     * the next successful login. Calibration is per host, so {@code cost} must be fixed when revocations are synced
+     * across nodes.
+     */
+    public static class PasswordHashing {
+
+        private int threads = 0;
+        private int queueCapacity = 64;
+        private Duration maxWait = Duration.ofSeconds(5);
+        private int cost = 0;
+        private int minCost = 10;
+        private int maxCost = 14;
+        private Duration targetLatency = Duration.ofMillis(250);
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+
+        public void setCost(int cost) {
+            this.cost = cost;
+        }
+
+        public int getMinCost() {
+            return minCost;
+        }
+
+        public void setMinCost(int minCost) {
+            this.minCost = minCost;
+        }
+
+        public int getMaxCost() {
+            return maxCost;
+        }
+
+        public void setMaxCost(int maxCost) {
+            this.maxCost = maxCost;
+        }
+
+        public Duration getTargetLatency() {
+            return targetLatency;
+        }
+
+        public void setTargetLatency(Duration targetLatency) {
+            this.targetLatency = targetLatency;
+        }
+    }
 }
@@ -4,8 +4,10 @@ import com.autumnus.spring_boot_starter_template.common.context.RequestContextHo
 import com.autumnus.spring_boot_starter_template.common.storage.exception.MediaStorageException;
 import com.autumnus.spring_boot_starter_template.common.idempotency.IdempotencyKeyConflictException;
 import com.autumnus.spring_boot_starter_template.common.rate_limiting.RateLimitExceededException;
+import com.autumnus.spring_boot_starter_template.common.security.PasswordHashingUnavailableException;
 import com.autumnus.spring_boot_starter_template.common.security.UnauthorizedException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -36,6 +38,14 @@ public class GlobalExceptionHandler {
         return buildResponse(ex.getCode(), ex.getMessage(), HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ApiError> handlePasswordHashingUnavailable(PasswordHashingUnavailableException ex) {
+        final String traceId = RequestContextHolder.getContext().getTraceId();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiError.of(ex.getCode(), ex.getMessage(), traceId));
+    }
+
     @ExceptionHandler(MediaStorageException.class)
     public ResponseEntity<ApiError> handleMediaStorage(MediaStorageException ex) {
         return buildResponse(ex.getCode(), ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -12,7 +12,8 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "idempotency_keys", indexes = {
-        @Index(name = "uk_idempotency_key", columnList = "idempotencyKey", unique = true)
+        @Index(name = "uk_idempotency_key", columnList = "idempotencyKey", unique = true),
+        @Index(name = "idx_idempotency_expires", columnList = "expiresAt")
 })
 @Getter
 @Setter
@@ -1,11 +1,24 @@
 package com.autumnus.spring_boot_starter_template.common.idempotency;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID> {
 
     Optional<IdempotencyKey> findByIdempotencyKey(String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            delete from idempotency_keys
+            where id in (select id from idempotency_keys where expires_at < :cutoff limit :limit)
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
@@ -0,0 +1,121 @@
+package com.autumnus.spring_boot_starter_template.common.maintenance;
+
+import com.autumnus.spring_boot_starter_template.common.config.MaintenanceProperties;
+import com.autumnus.spring_boot_starter_template.common.idempotency.IdempotencyKeyRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.EmailVerificationTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.PasswordResetTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes expired rows in fixed-size chunks, each chunk in its own transaction, so a large backlog is drained without
+ * long-running locks or loading rows into memory. Rows deleted and time taken are exported per table as
+ * {@code maintenance.cleanup.rows} and {@code maintenance.cleanup.duration}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.maintenance.cleanup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredRecordCleanupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredRecordCleanupJob.class);
+    private static final String LOCK_KEY = "maintenance:expired-record-cleanup";
+
+    private final Map<String, ChunkedDelete> targets = new LinkedHashMap<>();
+    private final Map<String, Counter> rowCounters = new LinkedHashMap<>();
+    private final Map<String, Timer> timers = new LinkedHashMap<>();
+    private final int batchSize;
+    private final RedisJobLock lock;
+
+    public ExpiredRecordCleanupJob(
+            RefreshTokenRepository refreshTokenRepository,
+            EmailVerificationTokenRepository emailVerificationTokenRepository,
+            PasswordResetTokenRepository passwordResetTokenRepository,
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            MaintenanceProperties properties,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        final MaintenanceProperties.Cleanup cleanup = properties.getCleanup();
+        this.batchSize = cleanup.getBatchSize();
+        this.lock = cleanup.getLock() == MaintenanceProperties.Cleanup.Lock.REDIS
+                ? new RedisJobLock(redisTemplate.getObject(), LOCK_KEY, cleanup.getLockTtl())
+                : null;
+        targets.put("refresh_tokens", refreshTokenRepository::deleteExpiredBatch);
+        targets.put("email_verification_tokens", emailVerificationTokenRepository::deleteExpiredBatch);
+        targets.put("password_reset_tokens", passwordResetTokenRepository::deleteExpiredBatch);
+        targets.put("idempotency_keys", idempotencyKeyRepository::deleteExpiredBatch);
+        for (String table : targets.keySet()) {
+            rowCounters.put(table, Counter.builder("maintenance.cleanup.rows")
+                    .description("Expired rows deleted by the cleanup job")
+                    .tag("table", table)
+                    .register(meterRegistry));
+            timers.put(table, Timer.builder("maintenance.cleanup.duration")
+                    .description("Time spent deleting expired rows per cleanup pass")
+                    .tag("table", table)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${application.maintenance.cleanup.initial-delay:PT1M}",
+            fixedDelayString = "${application.maintenance.cleanup.interval:PT1H}")
+    public void run() {
+        final String lockToken;
+        try {
+            lockToken = lock != null ? lock.tryAcquire() : null;
+        } catch (RuntimeException ex) {
+            log.warn("Skipping expired record cleanup, lock unavailable: {}", ex.getMessage());
+            return;
+        }
+        if (lock != null && lockToken == null) {
+            log.debug("Expired record cleanup is running on another node");
+            return;
+        }
+        try {
+            final Instant cutoff = Instant.now();
+            targets.forEach((table, delete) -> purge(table, delete, cutoff));
+        } finally {
+            if (lockToken != null) {
+                lock.release(lockToken);
+            }
+        }
+    }
+
+    private void purge(String table, ChunkedDelete delete, Instant cutoff) {
+        final long start = System.nanoTime();
+        long deleted = 0;
+        try {
+            int batch;
+            do {
+                batch = delete.deleteExpiredBatch(cutoff, batchSize);
+                deleted += batch;
+            } while (batch == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Cleanup of {} stopped after {} rows: {}", table, deleted, ex.getMessage());
+        }
+        final long elapsedNanos = System.nanoTime() - start;
+        timers.get(table).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        rowCounters.get(table).increment(deleted);
+        if (deleted > 0) {
+            log.info("Deleted {} expired rows from {} in {} ms", deleted, table, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkedDelete {
+        int deleteExpiredBatch(Instant cutoff, int limit);
+    }
+}
@@ -0,0 +1,42 @@
+package com.autumnus.spring_boot_starter_template.common.maintenance;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Single-holder lease on a Redis key ({@code SET NX PX}). The TTL bounds how long a crashed holder blocks other nodes;
+ * release only deletes the key if it still carries this holder's token.
+ */
+public class RedisJobLock {
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final Duration ttl;
+
+    public RedisJobLock(StringRedisTemplate redisTemplate, String key, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns the holder token, or {@code null} if another node holds the lock.
+     */
+    public String tryAcquire() {
+        final String token = UUID.randomUUID().toString();
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, ttl)) ? token : null;
+    }
+
+    public void release(String token) {
+        redisTemplate.execute(RELEASE, List.of(key), token);
+    }
+}
@@ -0,0 +1,16 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * Storage for rate limiting buckets, keyed by the 64-bit values produced by {@link RateLimitKeys}. Implementations
+ * must be bounded: buckets that are evicted simply start again with a full allowance, so it is always safe to drop idle
+ * entries.
+ */
+public interface BucketStore {
+
+    Bucket resolve(long key, BucketConfiguration configuration);
+
+    long size();
+}
@@ -0,0 +1,185 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+
+/**
+ * Bounded {@code long -> Bucket} table used on the request path. Keys are already well-mixed 64-bit hashes (see
+ * {@link RateLimitKeys}), so the table uses open addressing over primitive arrays split into lock-striped segments and
+ * performs no allocation on a hit. When a segment fills up, idle entries are swept first and, if none are idle, the
+ * least recently used quarter of the segment is dropped.
+ */
+final class BucketTable {
+
+    static final String CACHE_NAME = "rateLimitBuckets";
+
+    private static final int SEGMENT_COUNT = 64;
+    private static final int SEGMENT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+
+    @FunctionalInterface
+    interface BucketFactory {
+        Bucket create(long key, BucketConfiguration configuration);
+    }
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final BucketFactory factory;
+    private final long idleTimeoutNanos;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    BucketTable(long maxBuckets, Duration idleTimeout, BucketFactory factory, MeterRegistry meterRegistry) {
+        final int perSegment = (int) Math.max(8, (maxBuckets + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.factory = factory;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME).register(meterRegistry);
+        Gauge.builder("cache.size", this, BucketTable::size)
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, BucketTable::hitRatio)
+                .tag("cache", CACHE_NAME)
+                .description("Share of rate limit lookups served by an existing bucket")
+                .register(meterRegistry);
+    }
+
+    Bucket get(long key, BucketConfiguration configuration) {
+        final Segment segment = segments[(int) (key >>> SEGMENT_SHIFT)];
+        final long now = System.nanoTime();
+        int evicted = 0;
+        final Bucket bucket;
+        synchronized (segment) {
+            final Bucket existing = segment.get(key, now);
+            if (existing != null) {
+                bucket = existing;
+            } else {
+                if (segment.size >= segment.limit) {
+                    evicted = segment.evict(now, idleTimeoutNanos);
+                }
+                bucket = factory.create(key, configuration);
+                segment.insert(key, bucket, now);
+            }
+        }
+        if (evicted > 0) {
+            evictions.increment(evicted);
+        }
+        return bucket;
+    }
+
+    long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    private double hitRatio() {
+        final double total = hits.count() + misses.count();
+        return total == 0 ? 1.0 : hits.count() / total;
+    }
+
+    private final class Segment {
+
+        private final long[] keys;
+        private final Bucket[] buckets;
+        private final long[] lastAccess;
+        private final int mask;
+        private final int limit;
+        private volatile int size;
+
+        private Segment(int limit) {
+            final int capacity = Integer.highestOneBit(limit * 2 - 1) << 1;
+            this.keys = new long[capacity];
+            this.buckets = new Bucket[capacity];
+            this.lastAccess = new long[capacity];
+            this.mask = capacity - 1;
+            this.limit = limit;
+        }
+
+        private Bucket get(long key, long now) {
+            for (int i = slot(key); buckets[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    lastAccess[i] = now;
+                    hits.increment();
+                    return buckets[i];
+                }
+            }
+            misses.increment();
+            return null;
+        }
+
+        private void insert(long key, Bucket bucket, long now) {
+            int i = slot(key);
+            while (buckets[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            buckets[i] = bucket;
+            lastAccess[i] = now;
+            size++;
+        }
+
+        private int evict(long now, long idleTimeoutNanos) {
+            final int before = size;
+            removeOlderThan(now - idleTimeoutNanos);
+            if (size >= limit) {
+                long oldest = now;
+                for (int i = 0; i <= mask; i++) {
+                    if (buckets[i] != null && lastAccess[i] - oldest < 0) {
+                        oldest = lastAccess[i];
+                    }
+                }
+                removeOlderThan(oldest + Math.max(1, (now - oldest) / 4));
+            }
+            return before - size;
+        }
+
+        private void removeOlderThan(long threshold) {
+            int i = 0;
+            while (i <= mask) {
+                if (buckets[i] != null && lastAccess[i] - threshold < 0) {
+                    removeAt(i);
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        // Backward-shift deletion keeps probe sequences intact without tombstones.
+        private void removeAt(int hole) {
+            int next = hole;
+            while (true) {
+                next = (next + 1) & mask;
+                if (buckets[next] == null) {
+                    break;
+                }
+                final int home = slot(keys[next]);
+                final boolean stays = hole <= next
+                        ? hole < home && home <= next
+                        : hole < home || home <= next;
+                if (!stays) {
+                    keys[hole] = keys[next];
+                    buckets[hole] = buckets[next];
+                    lastAccess[hole] = lastAccess[next];
+                    hole = next;
+                }
+            }
+            buckets[hole] = null;
+            size--;
+        }
+
+        private int slot(long key) {
+            return (int) key & mask;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import com.autumnus.spring_boot_starter_template.common.config.RateLimitingProperties;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import io.github.bucket4j.local.SynchronizationStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+
+public class LocalBucketStore implements BucketStore {
+
+    private final BucketTable buckets;
+
+    public LocalBucketStore(RateLimitingProperties properties, MeterRegistry meterRegistry) {
+        this.buckets = new BucketTable(
+                properties.getMaxBuckets(),
+                properties.getBucketIdleTimeout(),
+                LocalBucketStore::newBucket,
+                meterRegistry);
+    }
+
+    @Override
+    public Bucket resolve(long key, BucketConfiguration configuration) {
+        return buckets.get(key, configuration);
+    }
+
+    @Override
+    public long size() {
+        return buckets.size();
+    }
+
+    private static Bucket newBucket(long key, BucketConfiguration configuration) {
+        // Buckets are per client, so contention is rare; the synchronized strategy avoids the state copy the
+        // lock-free strategy allocates on every consume.
+        final LocalBucketBuilder builder = Bucket.builder().withSynchronizationStrategy(SynchronizationStrategy.SYNCHRONIZED);
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import com.autumnus.spring_boot_starter_template.common.config.RateLimitingProperties;
+import com.autumnus.spring_boot_starter_template.common.context.RequestContextHolder;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * First rate limiting stage. Runs ahead of {@code JwtAuthenticationFilter} and only looks at the client address, so
+ * credential stuffing and token spraying are rejected before any password hashing or signature verification. The
+ * per-route, per-user quotas are still enforced afterwards by {@link RateLimitingFilter}.
+ */
+@Component
+public class PreAuthRateLimitingFilter extends OncePerRequestFilter {
+
+    private final RateLimitingService rateLimitingService;
+    private final RateLimitRejectionWriter rejectionWriter;
+    private final RateLimitPolicy policy;
+    private final boolean enabled;
+
+    public PreAuthRateLimitingFilter(
+            RateLimitingService rateLimitingService,
+            RateLimitRejectionWriter rejectionWriter,
+            RateLimitingProperties properties
+    ) {
+        this.rateLimitingService = rateLimitingService;
+        this.rejectionWriter = rejectionWriter;
+        final RateLimitingProperties.PreAuth preAuth = properties.getPreAuth();
+        this.policy = new RateLimitPolicy(
+                -1,
+                preAuth.getCapacity(),
+                preAuth.getRefillPeriod(),
+                Set.of(RateLimitingProperties.KeyDimension.IP),
+                Set.of(),
+                null);
+        this.enabled = preAuth.isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        final ConsumptionProbe probe = rateLimitingService.tryConsume(RateLimitKeys.preAuth(request.getRemoteAddr()), policy);
+        if (!probe.isConsumed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(RateLimitingFilter.retryAfterSeconds(probe)));
+            rejectionWriter.write(response, RequestContextHolder.getContext().getTraceId());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,100 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+/**
+ * Folds the parts of a rate limit key into a single 64-bit value without allocating. IPv4 addresses are packed into
+ * their 32-bit form; IPv6 addresses, device ids and methods are hashed over their characters.
+ */
+public final class RateLimitKeys {
+
+    public static final long ANONYMOUS_USER = -1L;
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long PRE_AUTH_SEED = 0x2545F4914F6CDD1DL;
+    private static final long ABSENT = 0x5851F42D4C957F2DL;
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private RateLimitKeys() {
+    }
+
+    public static long start(int routeId, int policyId, String method) {
+        long hash = combine(SEED, ((long) routeId << 32) | (policyId & 0xFFFFFFFFL));
+        return combine(hash, hashChars(method));
+    }
+
+    /**
+     * Key for the pre-authentication stage; salted separately so it never collides with a per-route bucket.
+     */
+    public static long preAuth(String address) {
+        return finish(withIp(PRE_AUTH_SEED, address));
+    }
+
+    public static long withUser(long hash, long userId) {
+        return combine(hash, userId);
+    }
+
+    public static long withIp(long hash, String address) {
+        if (address == null) {
+            return combine(hash, ABSENT);
+        }
+        final long ipv4 = packIpv4(address);
+        return combine(hash, ipv4 >= 0 ? ipv4 : hashChars(address));
+    }
+
+    public static long withDevice(long hash, String deviceId) {
+        return combine(hash, deviceId == null ? ABSENT : hashChars(deviceId));
+    }
+
+    public static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Returns the address as an unsigned 32-bit value, or {@code -1} if it is not a dotted IPv4 literal.
+     */
+    static long packIpv4(String address) {
+        final int length = address.length();
+        if (length < 7 || length > 15) {
+            return -1;
+        }
+        long packed = 0;
+        int octet = -1;
+        int dots = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = address.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                packed = (packed << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || octet < 0) {
+            return -1;
+        }
+        return (packed << 8) | octet;
+    }
+
+    private static long hashChars(CharSequence value) {
+        long hash = ABSENT ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * PRIME_1;
+        }
+        return hash;
+    }
+
+    private static long combine(long hash, long value) {
+        return Long.rotateLeft(hash ^ (value * PRIME_2), 31) * PRIME_1;
+    }
+}
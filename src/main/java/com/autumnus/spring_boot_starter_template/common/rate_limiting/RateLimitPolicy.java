@@ -0,0 +1,92 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import com.autumnus.spring_boot_starter_template.common.config.RateLimitingProperties.KeyDimension;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class RateLimitPolicy {
+
+    private final int id;
+    private final long capacity;
+    private final String capacityHeaderValue;
+    private final Duration refillPeriod;
+    private final BucketConfiguration configuration;
+    private final boolean keyByUser;
+    private final boolean keyByIp;
+    private final boolean keyByDevice;
+    private final Set<String> methods;
+    private final String authority;
+
+    RateLimitPolicy(int id, long capacity, Duration refillPeriod, Set<KeyDimension> key, Set<String> methods, String role) {
+        this.id = id;
+        this.capacity = capacity;
+        this.capacityHeaderValue = Long.toString(capacity);
+        this.refillPeriod = refillPeriod;
+        this.configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(capacity, Refill.intervally(capacity, refillPeriod)))
+                .build();
+        this.keyByUser = key.contains(KeyDimension.USER);
+        this.keyByIp = key.contains(KeyDimension.IP);
+        this.keyByDevice = key.contains(KeyDimension.DEVICE);
+        this.methods = methods.stream().map(method -> method.toUpperCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+        this.authority = role == null ? null : role.startsWith("ROLE_") ? role : "ROLE_" + role;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public String getCapacityHeaderValue() {
+        return capacityHeaderValue;
+    }
+
+    public Duration getRefillPeriod() {
+        return refillPeriod;
+    }
+
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public boolean isKeyByUser() {
+        return keyByUser;
+    }
+
+    public boolean isKeyByIp() {
+        return keyByIp;
+    }
+
+    public boolean isKeyByDevice() {
+        return keyByDevice;
+    }
+
+    boolean appliesTo(String method, Authentication authentication) {
+        if (!methods.isEmpty() && !methods.contains(method)) {
+            return false;
+        }
+        if (authority == null) {
+            return true;
+        }
+        if (authentication == null) {
+            return false;
+        }
+        for (GrantedAuthority granted : authentication.getAuthorities()) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import com.autumnus.spring_boot_starter_template.common.exception.ApiError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Writes the 429 body from a template serialized once with the application's {@link ObjectMapper}. Only the trace id
+ * and a timestamp (cached per second) are spliced in, so rejecting a flood of requests costs a few buffer copies.
+ */
+@Component
+class RateLimitRejectionWriter {
+
+    static final String ERROR_CODE = "RATE_LIMIT_EXCEEDED";
+    static final String ERROR_MESSAGE = "Too many requests";
+
+    private static final String TRACE_ID_MARKER = "__trace_id__";
+    private static final Instant TIMESTAMP_MARKER = Instant.parse("2000-01-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper;
+    private final byte[] head;
+    private final byte[] middle;
+    private final byte[] tail;
+    private final boolean traceIdFirst;
+    private volatile CachedTimestamp timestamp;
+
+    RateLimitRejectionWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        final String traceMarker = writeValue(TRACE_ID_MARKER);
+        final String timestampMarker = writeValue(TIMESTAMP_MARKER);
+        final String template = writeValue(ApiError.builder()
+                .error(ApiError.ErrorDetail.builder()
+                        .code(ERROR_CODE)
+                        .message(ERROR_MESSAGE)
+                        .traceId(TRACE_ID_MARKER)
+                        .timestamp(TIMESTAMP_MARKER)
+                        .build())
+                .build());
+        final int traceAt = template.indexOf(traceMarker);
+        final int timestampAt = template.indexOf(timestampMarker);
+        if (traceAt < 0 || timestampAt < 0) {
+            throw new IllegalStateException("Unable to build rate limit rejection template from " + template);
+        }
+        this.traceIdFirst = traceAt < timestampAt;
+        final int firstAt = Math.min(traceAt, timestampAt);
+        final int firstEnd = firstAt + (traceIdFirst ? traceMarker : timestampMarker).length();
+        final int secondAt = Math.max(traceAt, timestampAt);
+        final int secondEnd = secondAt + (traceIdFirst ? timestampMarker : traceMarker).length();
+        this.head = template.substring(0, firstAt).getBytes(StandardCharsets.UTF_8);
+        this.middle = template.substring(firstEnd, secondAt).getBytes(StandardCharsets.UTF_8);
+        this.tail = template.substring(secondEnd).getBytes(StandardCharsets.UTF_8);
+        this.timestamp = new CachedTimestamp(Long.MIN_VALUE, new byte[0]);
+    }
+
+    void write(HttpServletResponse response, String traceId) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (traceId == null) {
+            // NON_NULL inclusion drops the field entirely; this path is not expected once TraceIdFilter has run.
+            response.getOutputStream().write(objectMapper.writeValueAsBytes(ApiError.of(ERROR_CODE, ERROR_MESSAGE, null)));
+            return;
+        }
+        final byte[] quotedTimestamp = currentTimestamp();
+        final ServletOutputStream out = response.getOutputStream();
+        out.write(head);
+        if (traceIdFirst) {
+            writeQuoted(out, traceId);
+            out.write(middle);
+            out.write(quotedTimestamp);
+        } else {
+            out.write(quotedTimestamp);
+            out.write(middle);
+            writeQuoted(out, traceId);
+        }
+        out.write(tail);
+    }
+
+    private byte[] currentTimestamp() {
+        final long second = System.currentTimeMillis() / 1000;
+        CachedTimestamp cached = timestamp;
+        if (cached.epochSecond != second) {
+            cached = new CachedTimestamp(second, writeValue(Instant.ofEpochSecond(second)).getBytes(StandardCharsets.UTF_8));
+            timestamp = cached;
+        }
+        return cached.quoted;
+    }
+
+    private static void writeQuoted(ServletOutputStream out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isPlain(value.charAt(i))) {
+                out.write('"');
+                out.write(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+                out.write('"');
+                return;
+            }
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            out.write(value.charAt(i));
+        }
+        out.write('"');
+    }
+
+    private static boolean isPlain(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_' || c == '.';
+    }
+
+    private String writeValue(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize rate limit rejection template", ex);
+        }
+    }
+
+    private record CachedTimestamp(long epochSecond, byte[] quoted) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import org.springframework.security.core.Authentication;
+
+public final class RateLimitRoute {
+
+    private final int id;
+    private final String template;
+    private final RateLimitPolicy[] policies;
+
+    RateLimitRoute(int id, String template, RateLimitPolicy[] policies) {
+        this.id = id;
+        this.template = template;
+        this.policies = policies;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Returns the first policy applicable to the method and caller. The last entry is always the default policy,
+     * which applies unconditionally.
+     */
+    public RateLimitPolicy resolvePolicy(String method, Authentication authentication) {
+        for (int i = 0; i < policies.length - 1; i++) {
+            if (policies[i].appliesTo(method, authentication)) {
+                return policies[i];
+            }
+        }
+        return policies[policies.length - 1];
+    }
+}
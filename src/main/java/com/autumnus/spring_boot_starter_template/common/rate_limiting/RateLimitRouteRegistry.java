@@ -0,0 +1,177 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import com.autumnus.spring_boot_starter_template.common.config.RateLimitingProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maps requests to the route template of the handler that will serve them, so that {@code /api/v1/users/1} and
+ * {@code /api/v1/users/2} share a bucket, and attaches the configured policies to each route. The table is compiled
+ * once the handler mappings are ready; a request then costs a hash lookup for literal routes or a short prefix-filtered
+ * scan for templated ones.
+ */
+@Component
+public class RateLimitRouteRegistry {
+
+    static final String UNMATCHED_TEMPLATE = "<unmatched>";
+
+    private final ApplicationContext applicationContext;
+    private final RateLimitingProperties properties;
+    private final RateLimitPolicy defaultPolicy;
+    private volatile RouteTable table;
+
+    public RateLimitRouteRegistry(ApplicationContext applicationContext, RateLimitingProperties properties) {
+        this.applicationContext = applicationContext;
+        this.properties = properties;
+        this.defaultPolicy = new RateLimitPolicy(
+                0,
+                properties.getCapacity(),
+                properties.getRefillPeriod(),
+                properties.getKey().isEmpty() ? EnumSet.noneOf(RateLimitingProperties.KeyDimension.class) : EnumSet.copyOf(properties.getKey()),
+                Set.of(),
+                null);
+        this.table = new RouteTable(Map.of(), new RateLimitRoute[0], new String[0], new PathPattern[0],
+                new RateLimitRoute(0, UNMATCHED_TEMPLATE, new RateLimitPolicy[]{defaultPolicy}));
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void compile() {
+        final TreeSet<String> templates = new TreeSet<>();
+        applicationContext.getBeansOfType(RequestMappingInfoHandlerMapping.class).values()
+                .forEach(mapping -> mapping.getHandlerMethods().keySet()
+                        .forEach(info -> templates.addAll(info.getPatternValues())));
+
+        final List<CompiledPolicy> compiledPolicies = new ArrayList<>();
+        for (int i = 0; i < properties.getPolicies().size(); i++) {
+            final RateLimitingProperties.Policy policy = properties.getPolicies().get(i);
+            if (StringUtils.hasText(policy.getPattern())) {
+                compiledPolicies.add(compilePolicy(i + 1, policy));
+            }
+        }
+
+        final PathPatternParser parser = PathPatternParser.defaultInstance;
+        final Map<String, RateLimitRoute> literalRoutes = new HashMap<>();
+        final List<Map.Entry<PathPattern, RateLimitRoute>> patternRoutes = new ArrayList<>();
+        int nextId = 1;
+        for (String template : templates) {
+            final RateLimitRoute route = new RateLimitRoute(nextId++, template, policiesFor(template, compiledPolicies));
+            final PathPattern pattern = parser.parse(template);
+            if (isLiteral(template)) {
+                literalRoutes.put(template, route);
+            } else {
+                patternRoutes.add(Map.entry(pattern, route));
+            }
+        }
+        patternRoutes.sort(Map.Entry.comparingByKey(PathPattern.SPECIFICITY_COMPARATOR));
+
+        final RateLimitRoute[] routes = new RateLimitRoute[patternRoutes.size()];
+        final String[] prefixes = new String[patternRoutes.size()];
+        final PathPattern[] patterns = new PathPattern[patternRoutes.size()];
+        for (int i = 0; i < patternRoutes.size(); i++) {
+            patterns[i] = patternRoutes.get(i).getKey();
+            routes[i] = patternRoutes.get(i).getValue();
+            prefixes[i] = literalPrefix(routes[i].getTemplate());
+        }
+        final RateLimitRoute unmatched = new RateLimitRoute(0, UNMATCHED_TEMPLATE, new RateLimitPolicy[]{defaultPolicy});
+        this.table = new RouteTable(Map.copyOf(literalRoutes), routes, prefixes, patterns, unmatched);
+    }
+
+    public RateLimitRoute resolve(HttpServletRequest request) {
+        final String contextPath = request.getContextPath();
+        String path = request.getRequestURI();
+        if (StringUtils.hasLength(contextPath) && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+        return table.resolve(path);
+    }
+
+    private RateLimitPolicy[] policiesFor(String template, List<CompiledPolicy> compiledPolicies) {
+        final PathContainer templatePath = PathContainer.parsePath(template);
+        final List<RateLimitPolicy> matching = new ArrayList<>();
+        for (CompiledPolicy compiled : compiledPolicies) {
+            if (compiled.pattern().matches(templatePath)) {
+                matching.add(compiled.policy());
+            }
+        }
+        matching.add(defaultPolicy);
+        return matching.toArray(RateLimitPolicy[]::new);
+    }
+
+    private CompiledPolicy compilePolicy(int id, RateLimitingProperties.Policy policy) {
+        final EnumSet<RateLimitingProperties.KeyDimension> key = policy.getKey() == null || policy.getKey().isEmpty()
+                ? (properties.getKey().isEmpty() ? EnumSet.noneOf(RateLimitingProperties.KeyDimension.class) : EnumSet.copyOf(properties.getKey()))
+                : EnumSet.copyOf(policy.getKey());
+        final RateLimitPolicy compiled = new RateLimitPolicy(
+                id,
+                policy.getCapacity() != null ? policy.getCapacity() : properties.getCapacity(),
+                policy.getRefillPeriod() != null ? policy.getRefillPeriod() : properties.getRefillPeriod(),
+                key,
+                policy.getMethods() == null ? Set.of() : policy.getMethods(),
+                StringUtils.hasText(policy.getRole()) ? policy.getRole() : null);
+        return new CompiledPolicy(PathPatternParser.defaultInstance.parse(policy.getPattern()), compiled);
+    }
+
+    private static boolean isLiteral(String template) {
+        return template.indexOf('{') < 0 && template.indexOf('*') < 0 && template.indexOf('?') < 0;
+    }
+
+    private static String literalPrefix(String template) {
+        int end = template.length();
+        for (char marker : new char[]{'{', '*', '?'}) {
+            final int index = template.indexOf(marker);
+            if (index >= 0 && index < end) {
+                end = index;
+            }
+        }
+        return template.substring(0, end);
+    }
+
+    private record CompiledPolicy(PathPattern pattern, RateLimitPolicy policy) {
+    }
+
+    private record RouteTable(
+            Map<String, RateLimitRoute> literalRoutes,
+            RateLimitRoute[] patternRoutes,
+            String[] prefixes,
+            PathPattern[] patterns,
+            RateLimitRoute unmatched
+    ) {
+
+        RateLimitRoute resolve(String path) {
+            final RateLimitRoute literal = literalRoutes.get(path);
+            if (literal != null) {
+                return literal;
+            }
+            PathContainer container = null;
+            for (int i = 0; i < patternRoutes.length; i++) {
+                if (!path.startsWith(prefixes[i])) {
+                    continue;
+                }
+                if (container == null) {
+                    container = PathContainer.parsePath(path);
+                }
+                if (patterns[i].matches(container)) {
+                    return patternRoutes[i];
+                }
+            }
+            return unmatched;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import com.autumnus.spring_boot_starter_template.common.config.RateLimitingProperties;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.redis.lettuce.Bucket4jLettuce;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+
+@Configuration
+public class RateLimitingConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.rate-limit", name = "mode", havingValue = "local", matchIfMissing = true)
+    public BucketStore localBucketStore(RateLimitingProperties properties, MeterRegistry meterRegistry) {
+        return new LocalBucketStore(properties, meterRegistry);
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "application.rate-limit", name = "mode", havingValue = "redis")
+    static class RedisRateLimitingConfiguration {
+
+        @Bean(destroyMethod = "shutdown")
+        public RedisClient rateLimitRedisClient(RedisProperties redisProperties) {
+            final RedisURI.Builder uri = RedisURI.builder()
+                    .withHost(redisProperties.getHost())
+                    .withPort(redisProperties.getPort())
+                    .withDatabase(redisProperties.getDatabase())
+                    .withSsl(redisProperties.getSsl().isEnabled());
+            if (StringUtils.hasText(redisProperties.getPassword())) {
+                if (StringUtils.hasText(redisProperties.getUsername())) {
+                    uri.withAuthentication(redisProperties.getUsername(), redisProperties.getPassword());
+                } else {
+                    uri.withPassword(redisProperties.getPassword().toCharArray());
+                }
+            }
+            return RedisClient.create(uri.build());
+        }
+
+        @Bean(destroyMethod = "close")
+        public StatefulRedisConnection<byte[], byte[]> rateLimitRedisConnection(RedisClient rateLimitRedisClient) {
+            return rateLimitRedisClient.connect(ByteArrayCodec.INSTANCE);
+        }
+
+        @Bean
+        public BucketStore redisBucketStore(
+                StatefulRedisConnection<byte[], byte[]> rateLimitRedisConnection,
+                RateLimitingProperties properties,
+                MeterRegistry meterRegistry
+        ) {
+            final ProxyManager<byte[]> proxyManager = Bucket4jLettuce.casBasedBuilder(rateLimitRedisConnection)
+                    .requestTimeout(properties.getRedis().getRequestTimeout())
+                    .expirationAfterWrite(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ofSeconds(10)))
+                    .build();
+            return new RedisBucketStore(proxyManager, properties, meterRegistry);
+        }
+    }
+}
@@ -1,40 +1,40 @@
 package com.autumnus.spring_boot_starter_template.common.rate_limiting;
 
-import com.autumnus.spring_boot_starter_template.common.config.RateLimitingProperties;
 import com.autumnus.spring_boot_starter_template.common.context.RequestContextHolder;
-import com.autumnus.spring_boot_starter_template.common.exception.ApiError;
 import com.autumnus.spring_boot_starter_template.common.security.SecurityUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.core.Ordered;
-import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
 @Component
-@Order(Ordered.HIGHEST_PRECEDENCE + 2)
 public class RateLimitingFilter extends OncePerRequestFilter {
 
+    private static final String DEVICE_ID_HEADER = "X-Device-Id";
+    private static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String RESET_HEADER = "X-RateLimit-Reset";
+
     private final RateLimitingService rateLimitingService;
-    private final ObjectMapper objectMapper;
-    private final RateLimitingProperties properties;
+    private final RateLimitRejectionWriter rejectionWriter;
+    private final RateLimitRouteRegistry routeRegistry;
 
     public RateLimitingFilter(
             RateLimitingService rateLimitingService,
-            ObjectMapper objectMapper,
-            RateLimitingProperties properties
+            RateLimitRejectionWriter rejectionWriter,
+            RateLimitRouteRegistry routeRegistry
     ) {
         this.rateLimitingService = rateLimitingService;
-        this.objectMapper = objectMapper;
-        this.properties = properties;
+        this.rejectionWriter = rejectionWriter;
+        this.routeRegistry = routeRegistry;
     }
 
     @Override
@@ -43,25 +43,41 @@ public class RateLimitingFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain
     ) throws ServletException, IOException {
-        final String key = buildKey(request);
-        if (!rateLimitingService.tryConsume(key)) {
-            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRefillPeriod().toSeconds()));
-            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-            final String traceId = RequestContextHolder.getContext().getTraceId();
-            final ApiError payload = ApiError.of("RATE_LIMIT_EXCEEDED", "Too many requests", traceId);
-            response.getWriter().write(objectMapper.writeValueAsString(payload));
+        final RateLimitRoute route = routeRegistry.resolve(request);
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        final RateLimitPolicy policy = route.resolvePolicy(request.getMethod(), authentication);
+        final long key = buildKey(request, route, policy);
+        final ConsumptionProbe probe = rateLimitingService.tryConsume(key, policy);
+        response.setHeader(LIMIT_HEADER, policy.getCapacityHeaderValue());
+        response.setHeader(REMAINING_HEADER, Long.toString(probe.getRemainingTokens()));
+        response.setHeader(RESET_HEADER, Long.toString(toSecondsCeil(probe.getNanosToWaitForReset())));
+        if (!probe.isConsumed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds(probe)));
+            rejectionWriter.write(response, RequestContextHolder.getContext().getTraceId());
             return;
         }
         filterChain.doFilter(request, response);
     }
 
-    private String buildKey(HttpServletRequest request) {
-        final String userId = SecurityUtils.getCurrentUserId()
-                .map(String::valueOf)
-                .orElse("anonymous");
-        final String ip = request.getRemoteAddr();
-        final String deviceId = request.getHeader("X-Device-Id");
-        return String.join(":", userId, ip, deviceId != null ? deviceId : "unknown", request.getMethod(), request.getRequestURI());
+    static long retryAfterSeconds(ConsumptionProbe probe) {
+        return Math.max(1, toSecondsCeil(probe.getNanosToWaitForRefill()));
+    }
+
+    private static long toSecondsCeil(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    private long buildKey(HttpServletRequest request, RateLimitRoute route, RateLimitPolicy policy) {
+        long key = RateLimitKeys.start(route.getId(), policy.getId(), request.getMethod());
+        if (policy.isKeyByUser()) {
+            key = RateLimitKeys.withUser(key, SecurityUtils.getCurrentUserIdOrDefault(RateLimitKeys.ANONYMOUS_USER));
+        }
+        if (policy.isKeyByIp()) {
+            key = RateLimitKeys.withIp(key, request.getRemoteAddr());
+        }
+        if (policy.isKeyByDevice()) {
+            key = RateLimitKeys.withDevice(key, request.getHeader(DEVICE_ID_HEADER));
+        }
+        return RateLimitKeys.finish(key);
     }
 }
@@ -0,0 +1,64 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import com.autumnus.spring_boot_starter_template.common.config.RateLimitingProperties;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+/**
+ * Shares buckets between replicas through Redis. Each node keeps the bucket proxies in a bounded near-cache and uses
+ * Bucket4j's delaying optimisation, so up to {@code max-unsynchronized-tokens} are reserved locally before the state
+ * is written back with a single compare-and-swap round trip.
+ */
+public class RedisBucketStore implements BucketStore {
+
+    private final ProxyManager<byte[]> proxyManager;
+    private final Optimization optimization;
+    private final BucketTable nearCache;
+    private final String keyPrefix;
+
+    public RedisBucketStore(
+            ProxyManager<byte[]> proxyManager,
+            RateLimitingProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.proxyManager = proxyManager;
+        final RateLimitingProperties.Redis redis = properties.getRedis();
+        this.optimization = Optimizations.delaying(new DelayParameters(
+                redis.getMaxUnsynchronizedTokens(),
+                redis.getMaxUnsynchronizedTimeout()));
+        this.keyPrefix = redis.getKeyPrefix();
+        this.nearCache = new BucketTable(
+                properties.getMaxBuckets(),
+                properties.getBucketIdleTimeout(),
+                this::newProxy,
+                meterRegistry);
+    }
+
+    @Override
+    public Bucket resolve(long key, BucketConfiguration configuration) {
+        return nearCache.get(key, configuration);
+    }
+
+    @Override
+    public long size() {
+        return nearCache.size();
+    }
+
+    private Bucket newProxy(long key, BucketConfiguration configuration) {
+        return proxyManager.builder()
+                .withOptimization(optimization)
+                .build(redisKey(key), configuration);
+    }
+
+    private byte[] redisKey(long key) {
+        return (keyPrefix + HexFormat.of().toHexDigits(key)).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,171 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.modules.users.entity.Permission;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.PermissionRepository;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes granted authorities as compact token claims: {@code rm} is a bit mask over {@link RoleName} ordinals and
+ * {@code pm} a base64url bit set indexed by permission id (ids are stable, so tokens stay valid across replicas and
+ * permission additions). Decoding returns one shared immutable authority list per distinct mask pair.
+ */
+@Component
+public class AuthorityCodec {
+
+    static final String ROLE_PREFIX = "ROLE_";
+    private static final int MAX_INTERNED_SETS = 4096;
+    private static final long RELOAD_INTERVAL_NANOS = 30_000_000_000L;
+    private static final RoleName[] ROLES = RoleName.values();
+    private static final GrantedAuthority[] ROLE_AUTHORITIES = new GrantedAuthority[ROLES.length];
+    private static final List<List<GrantedAuthority>> ROLE_ONLY_SETS;
+
+    static {
+        for (RoleName role : ROLES) {
+            ROLE_AUTHORITIES[role.ordinal()] = new SimpleGrantedAuthority(ROLE_PREFIX + role.name());
+        }
+        final List<List<GrantedAuthority>> sets = new ArrayList<>();
+        for (int mask = 0; mask < 1 << ROLES.length; mask++) {
+            sets.add(List.copyOf(roleAuthorities(mask, new ArrayList<>())));
+        }
+        ROLE_ONLY_SETS = List.copyOf(sets);
+    }
+
+    private final PermissionRepository permissionRepository;
+    private final Map<MaskKey, List<GrantedAuthority>> interned = new ConcurrentHashMap<>();
+    private volatile PermissionCatalog catalog;
+
+    public AuthorityCodec(PermissionRepository permissionRepository) {
+        this.permissionRepository = permissionRepository;
+    }
+
+    public long roleMask(Collection<String> authorities) {
+        long mask = 0;
+        for (String authority : authorities) {
+            if (authority.startsWith(ROLE_PREFIX)) {
+                try {
+                    mask |= 1L << RoleName.valueOf(authority.substring(ROLE_PREFIX.length())).ordinal();
+                } catch (IllegalArgumentException ignored) {
+                    // Unknown roles cannot be represented and are not granted by this application.
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the permission bit set, or {@code null} when no permission is granted.
+     */
+    public String permissionMask(Collection<String> authorities) {
+        final BitSet bits = new BitSet();
+        PermissionCatalog current = catalog();
+        for (String authority : authorities) {
+            if (authority.startsWith(ROLE_PREFIX)) {
+                continue;
+            }
+            Long id = current.idsByName().get(authority);
+            if (id == null) {
+                current = reload();
+                id = current.idsByName().get(authority);
+            }
+            if (id != null) {
+                bits.set(Math.toIntExact(id));
+            }
+        }
+        return bits.isEmpty() ? null : Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    public List<GrantedAuthority> authorities(long roleMask, String permissionMask) {
+        if (permissionMask == null && roleMask >= 0 && roleMask < ROLE_ONLY_SETS.size()) {
+            return ROLE_ONLY_SETS.get((int) roleMask);
+        }
+        final MaskKey key = new MaskKey(roleMask, permissionMask);
+        final List<GrantedAuthority> cached = interned.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final List<GrantedAuthority> decoded = decode(roleMask, permissionMask);
+        if (interned.size() < MAX_INTERNED_SETS) {
+            final List<GrantedAuthority> existing = interned.putIfAbsent(key, decoded);
+            return existing != null ? existing : decoded;
+        }
+        return decoded;
+    }
+
+    private List<GrantedAuthority> decode(long roleMask, String permissionMask) {
+        final List<GrantedAuthority> authorities = roleAuthorities(roleMask, new ArrayList<>());
+        if (permissionMask != null) {
+            final BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(permissionMask));
+            PermissionCatalog current = catalog();
+            for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                GrantedAuthority authority = current.authoritiesById().get((long) id);
+                if (authority == null) {
+                    current = reload();
+                    authority = current.authoritiesById().get((long) id);
+                }
+                if (authority != null) {
+                    authorities.add(authority);
+                }
+            }
+        }
+        return List.copyOf(authorities);
+    }
+
+    private static List<GrantedAuthority> roleAuthorities(long roleMask, List<GrantedAuthority> target) {
+        for (RoleName role : ROLES) {
+            if ((roleMask & (1L << role.ordinal())) != 0) {
+                target.add(ROLE_AUTHORITIES[role.ordinal()]);
+            }
+        }
+        return target;
+    }
+
+    private PermissionCatalog catalog() {
+        final PermissionCatalog current = catalog;
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Reloads the permission table when an unknown name or id is seen, at most once per {@link #RELOAD_INTERVAL_NANOS}.
+     */
+    private synchronized PermissionCatalog reload() {
+        final PermissionCatalog current = catalog;
+        if (current != null && System.nanoTime() - current.loadedAt() < RELOAD_INTERVAL_NANOS) {
+            return current;
+        }
+        final Map<String, Long> idsByName = new HashMap<>();
+        final Map<Long, GrantedAuthority> authoritiesById = new HashMap<>();
+        for (Permission permission : permissionRepository.findAll()) {
+            idsByName.put(permission.getName(), permission.getId());
+            authoritiesById.put(permission.getId(), new SimpleGrantedAuthority(permission.getName()));
+        }
+        final PermissionCatalog loaded = new PermissionCatalog(
+                Map.copyOf(idsByName),
+                Map.copyOf(authoritiesById),
+                System.nanoTime());
+        catalog = loaded;
+        interned.clear();
+        return loaded;
+    }
+
+    private record PermissionCatalog(
+            Map<String, Long> idsByName,
+            Map<Long, GrantedAuthority> authoritiesById,
+            long loadedAt
+    ) {
+    }
+
+    private record MaskKey(long roleMask, String permissionMask) {
+    }
+}
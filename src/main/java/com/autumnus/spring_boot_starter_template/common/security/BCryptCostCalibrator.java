@@ -0,0 +1,47 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the BCrypt work factor for this host: the fastest of {@value #SAMPLES} hashes at {@code min-cost} is timed
+ * and, since every extra cost step doubles the work, the highest cost whose projected latency stays within
+ * {@code target-latency} is chosen. Hosts calibrate independently and may pick different costs, so a fixed
+ * {@code cost} is required once revocations are synced across nodes; otherwise logins would re-hash passwords to
+ * whichever cost the serving node chose.
+ */
+final class BCryptCostCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+    private static final int SAMPLES = 3;
+
+    private BCryptCostCalibrator() {
+    }
+
+    static int calibrate(SecurityProperties.PasswordHashing settings, boolean clustered) {
+        if (settings.getCost() > 0) {
+            return settings.getCost();
+        }
+        if (clustered) {
+            throw new IllegalStateException("application.security.password-hashing.cost must be set when running "
+                    + "several nodes (application.security.revocation.sync=redis): calibrated costs differ per host");
+        }
+        final int minCost = settings.getMinCost();
+        final String salt = BCrypt.gensalt(minCost);
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            final long start = System.nanoTime();
+            BCrypt.hashpw("calibration-password", salt);
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+        final double headroom = (double) settings.getTargetLatency().toNanos() / Math.max(1, fastestNanos);
+        final int extraSteps = headroom < 1 ? 0 : (int) Math.floor(Math.log(headroom) / Math.log(2));
+        final int cost = Math.max(minCost, Math.min(settings.getMaxCost(), minCost + extraSteps));
+        log.info("BCrypt cost {} calibrated for this host ({} ms at cost {}, target {} ms); set "
+                        + "application.security.password-hashing.cost={} to pin it",
+                cost, fastestNanos / 1_000_000, minCost, settings.getTargetLatency().toMillis(), cost);
+        return cost;
+    }
+}
@@ -0,0 +1,76 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Authentication built from a verified bearer token. Unlike {@code UsernamePasswordAuthenticationToken} it does not
+ * copy the authority list, so the interned lists from {@link AuthorityCodec} are shared as-is. Only the
+ * {@code authenticated} flag is mutable, so each request gets its own {@link #copy()} of a cached instance.
+ */
+public final class JwtAuthentication implements Authentication {
+
+    private final UserPrincipal principal;
+    private final Object credentials;
+    private final List<GrantedAuthority> authorities;
+    private volatile boolean authenticated = true;
+
+    JwtAuthentication(UserPrincipal principal, Object credentials, List<GrantedAuthority> authorities) {
+        this.principal = principal;
+        this.credentials = credentials;
+        this.authorities = authorities;
+    }
+
+    /**
+     * A fresh, authenticated instance sharing this one's principal, credentials and authorities.
+     */
+    JwtAuthentication copy() {
+        return new JwtAuthentication(principal, credentials, authorities);
+    }
+
+    @Override
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return credentials;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public UserPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            throw new IllegalArgumentException("A token authentication cannot be marked as trusted after creation");
+        }
+        this.authenticated = false;
+    }
+
+    @Override
+    public String getName() {
+        return principal.getUsername();
+    }
+
+    @Override
+    public String toString() {
+        return "JwtAuthentication[principal=" + getName() + ", authorities=" + authorities + "]";
+    }
+}
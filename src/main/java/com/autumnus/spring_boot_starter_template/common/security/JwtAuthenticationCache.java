@@ -0,0 +1,121 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserDetailsServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Caches the {@link Authentication} built from a verified bearer token so repeated requests with the same token skip
+ * signature verification and claim parsing. Entries are keyed by the SHA-256 digest of the token (the raw token is not
+ * retained), expire at the token's {@code exp} or after {@code max-ttl}, whichever comes first, and are dropped when a
+ * user's tokens are revoked. Hits are still checked against the {@link TokenRevocationRegistry} watermark, so
+ * revocations made on another node take effect without waiting for the entry to expire. Compact tokens carry only the
+ * user id, so their email and username are taken from the cached principal when the entry is built. Only access
+ * tokens are accepted, and every call returns its own authenticated copy of the cached {@link JwtAuthentication}, so
+ * a request that calls {@code setAuthenticated(false)} does not affect others.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    static final String CACHE_NAME = "jwtAuthentication";
+
+    private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final boolean enabled;
+    private final long maxTtlNanos;
+    private final Cache<TokenDigest, CachedAuthentication> cache;
+
+    public JwtAuthenticationCache(
+            JwtTokenProvider tokenProvider,
+            TokenRevocationRegistry revocationRegistry,
+            UserDetailsServiceImpl userDetailsService,
+            SecurityProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.tokenProvider = tokenProvider;
+        this.revocationRegistry = revocationRegistry;
+        this.userDetailsService = userDetailsService;
+        final SecurityProperties.AuthenticationCache settings = properties.getAuthenticationCache();
+        this.enabled = settings.isEnabled();
+        this.maxTtlNanos = settings.getMaxTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Authentication authenticate(String token) {
+        final CachedAuthentication entry = enabled
+                ? cache.get(TokenDigest.of(TokenHash.sha256(token)), ignored -> load(token))
+                : load(token);
+        if (revocationRegistry.isRevoked(entry.userId(), entry.issuedAt())) {
+            throw new UnauthorizedException("Token has been revoked");
+        }
+        return entry.authentication().copy();
+    }
+
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.asMap().values().removeIf(entry -> userId.equals(entry.userId()));
+    }
+
+    private CachedAuthentication load(String token) {
+        final ParsedToken parsed = tokenProvider.parse(token);
+        if (!parsed.isAccessToken()) {
+            throw new UnauthorizedException("Token is not an access token");
+        }
+        final JwtAuthentication authentication = parsed.isCompact()
+                ? userDetailsService.findPrincipalById(parsed.userId())
+                .map(stored -> tokenProvider.toAuthentication(parsed, null, stored.getEmail(), stored.getAccountUsername()))
+                .orElseGet(() -> tokenProvider.toAuthentication(parsed, null))
+                : tokenProvider.toAuthentication(parsed, null);
+        final long ttlNanos = parsed.expiresAt() == null
+                ? maxTtlNanos
+                : Math.min(maxTtlNanos, Duration.between(Instant.now(), parsed.expiresAt()).toNanos());
+        return new CachedAuthentication(authentication, parsed.userId(), parsed.issuedAt(), Math.max(0, ttlNanos));
+    }
+
+    private record TokenDigest(long h0, long h1, long h2, long h3) {
+
+        static TokenDigest of(byte[] digest) {
+            final ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new TokenDigest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+    }
+
+    private record CachedAuthentication(JwtAuthentication authentication, Long userId, Instant issuedAt, long ttlNanos) {
+    }
+
+    private static final class TokenExpiry implements Expiry<TokenDigest, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, CachedAuthentication value, long currentTime) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
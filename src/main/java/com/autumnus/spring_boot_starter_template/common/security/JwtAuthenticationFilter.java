@@ -16,10 +16,10 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenProvider tokenProvider;
+    private final JwtAuthenticationCache authenticationCache;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider) {
-        this.tokenProvider = tokenProvider;
+    public JwtAuthenticationFilter(JwtAuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
     }
 
     @Override
@@ -32,7 +32,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
             final String token = bearerToken.substring(7);
             try {
-                final var authentication = tokenProvider.toAuthentication(token);
+                final var authentication = authenticationCache.authenticate(token);
                 SecurityContextHolder.getContext().setAuthentication(authentication);
                 if (authentication.getPrincipal() instanceof UserPrincipal principal) {
                     RequestContextHolder.getContext().setUserId(String.valueOf(principal.getUserId()));
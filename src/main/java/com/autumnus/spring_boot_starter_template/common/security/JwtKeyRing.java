@@ -0,0 +1,178 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties.Signing;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Keys used to sign and verify JWTs. In {@code HS256} mode this is just the shared secret. In {@code ES256}/{@code EdDSA}
+ * mode it holds the active private key and every known public key by {@code kid}; the lookup map and the JWKS document
+ * are built once at startup so verification never leaves the process.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final Signing.Algorithm algorithm;
+    private final Key signingKey;
+    private final String activeKeyId;
+    private final Map<String, PublicKey> verificationKeys;
+    private final String jwksJson;
+
+    public JwtKeyRing(SecurityProperties properties) {
+        final Signing signing = properties.getSigning();
+        this.algorithm = signing.getAlgorithm();
+        if (algorithm == Signing.Algorithm.HS256) {
+            final String secret = Objects.requireNonNull(properties.getJwtSecret(), "JWT secret must be configured");
+            if (secret.length() < 32) {
+                throw new IllegalArgumentException("JWT secret length must be at least 32 characters");
+            }
+            this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            this.activeKeyId = null;
+            this.verificationKeys = Map.of();
+            this.jwksJson = "{\"keys\":[]}";
+            return;
+        }
+
+        final Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        PrivateKey privateKey = null;
+        String keyId = signing.getActiveKeyId();
+        for (Signing.Key key : signing.getKeys()) {
+            if (!StringUtils.hasText(key.getId()) || !StringUtils.hasText(key.getPublicKey())) {
+                throw new IllegalArgumentException("Every signing key needs an id and a public key");
+            }
+            publicKeys.put(key.getId(), decodePublicKey(key.getPublicKey()));
+            if (key.getId().equals(keyId)) {
+                if (!StringUtils.hasText(key.getPrivateKey())) {
+                    throw new IllegalArgumentException("Active signing key '" + keyId + "' has no private key");
+                }
+                privateKey = decodePrivateKey(key.getPrivateKey());
+            }
+        }
+        if (publicKeys.isEmpty()) {
+            final KeyPair keyPair = generateKeyPair();
+            keyId = "ephemeral-" + UUID.randomUUID();
+            privateKey = keyPair.getPrivate();
+            publicKeys.put(keyId, keyPair.getPublic());
+            log.warn("No JWT signing keys configured for {}; using an ephemeral key pair. Tokens will not survive a "
+                    + "restart or verify on other instances.", algorithm);
+        }
+        if (privateKey == null) {
+            throw new IllegalArgumentException("application.security.signing.active-key-id must name a configured key");
+        }
+        this.signingKey = privateKey;
+        this.activeKeyId = keyId;
+        this.verificationKeys = Map.copyOf(publicKeys);
+        this.jwksJson = publicKeys.entrySet().stream()
+                .map(entry -> Jwks.json(Jwks.builder()
+                        .key(entry.getValue())
+                        .id(entry.getKey())
+                        .algorithm(algorithmId())
+                        .build()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    public boolean isAsymmetric() {
+        return algorithm != Signing.Algorithm.HS256;
+    }
+
+    public String getJwksJson() {
+        return jwksJson;
+    }
+
+    Key getSigningKey() {
+        return signingKey;
+    }
+
+    String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    LocatorAdapter<Key> verificationKeyLocator() {
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                final String keyId = header.getKeyId();
+                final PublicKey key = keyId != null ? verificationKeys.get(keyId) : null;
+                if (key == null) {
+                    throw new SignatureException("Unknown JWT signing key id: " + keyId);
+                }
+                return key;
+            }
+        };
+    }
+
+    SignatureAlgorithm signatureAlgorithm() {
+        return algorithm == Signing.Algorithm.ES256 ? Jwts.SIG.ES256 : Jwts.SIG.EdDSA;
+    }
+
+    private String algorithmId() {
+        return signatureAlgorithm().getId();
+    }
+
+    private String keyFactoryAlgorithm() {
+        return algorithm == Signing.Algorithm.ES256 ? "EC" : "Ed25519";
+    }
+
+    private KeyPair generateKeyPair() {
+        if (algorithm == Signing.Algorithm.ES256) {
+            return Jwts.SIG.ES256.keyPair().build();
+        }
+        try {
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Ed25519 is not available", ex);
+        }
+    }
+
+    private PublicKey decodePublicKey(String encoded) {
+        try {
+            return KeyFactory.getInstance(keyFactoryAlgorithm()).generatePublic(new X509EncodedKeySpec(decodePem(encoded)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalArgumentException("Invalid " + algorithm + " public key", ex);
+        }
+    }
+
+    private PrivateKey decodePrivateKey(String encoded) {
+        try {
+            return KeyFactory.getInstance(keyFactoryAlgorithm()).generatePrivate(new PKCS8EncodedKeySpec(decodePem(encoded)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalArgumentException("Invalid " + algorithm + " private key", ex);
+        }
+    }
+
+    private static byte[] decodePem(String encoded) {
+        final String body = encoded
+                .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+}
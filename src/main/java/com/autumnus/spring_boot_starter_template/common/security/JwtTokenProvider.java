@@ -3,10 +3,11 @@ package com.autumnus.spring_boot_starter_template.common.security;
 import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
 import com.autumnus.spring_boot_starter_template.modules.users.service.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtParserBuilder;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -14,7 +15,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -22,41 +24,60 @@ import java.util.stream.Collectors;
 @Component
 public class JwtTokenProvider {
 
-    private final SecretKey signingKey;
+    private final JwtKeyRing keyRing;
+    private final AuthorityCodec authorityCodec;
+    private final JwtParser parser;
     private final SecurityProperties properties;
 
-    public JwtTokenProvider(SecurityProperties properties) {
+    public JwtTokenProvider(SecurityProperties properties, JwtKeyRing keyRing, AuthorityCodec authorityCodec) {
         this.properties = properties;
-        final String secret = Objects.requireNonNull(properties.getJwtSecret(), "JWT secret must be configured");
-        if (secret.length() < 32) {
-            throw new IllegalArgumentException("JWT secret length must be at least 32 characters");
+        this.keyRing = keyRing;
+        this.authorityCodec = authorityCodec;
+        final JwtParserBuilder parserBuilder = Jwts.parser();
+        if (keyRing.isAsymmetric()) {
+            parserBuilder.keyLocator(keyRing.verificationKeyLocator());
+        } else {
+            parserBuilder.verifyWith((SecretKey) keyRing.getSigningKey());
         }
-        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = parserBuilder.build();
     }
 
     public String generateAccessToken(UserDetails userDetails) {
         if (!(userDetails instanceof UserPrincipal principal)) {
             throw new IllegalArgumentException("UserDetails must be an instance of UserPrincipal");
         }
+        if (properties.isCompactClaims()) {
+            return buildCompactAccessToken(principal.getUserId(), extractRoleNames(principal.getAuthorities()));
+        }
         return buildToken(
                 principal.getUserId(),
                 principal.getEmail(),
                 principal.getAccountUsername(),
                 extractRoleNames(principal.getAuthorities()),
                 properties.getAccessTokenTtl(),
-                Map.of("type", "access"));
+                Map.of("type", ParsedToken.TYPE_ACCESS));
     }
 
-    public String generateRefreshToken(com.autumnus.spring_boot_starter_template.modules.users.entity.User user) {
+    public String generateRefreshToken(UserPrincipal principal) {
         return buildToken(
-                user.getId(),
-                user.getEmail(),
-                user.getUsername(),
-                user.getRoleAssignments().stream()
-                        .map(assignment -> "ROLE_" + assignment.getRole().getName().name())
+                principal.getUserId(),
+                principal.getEmail(),
+                principal.getAccountUsername(),
+                principal.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .filter(authority -> authority.startsWith(AuthorityCodec.ROLE_PREFIX))
                         .collect(Collectors.toSet()),
                 properties.getRefreshTokenTtl(),
-                Map.of("type", "refresh"));
+                Map.of("type", ParsedToken.TYPE_REFRESH, "jti", UUID.randomUUID().toString()));
+    }
+
+    /**
+     * Verifies the signature and expiry once and returns the claims the application uses.
+     *
+     * @throws JwtException if the token is malformed, expired or not signed with the current key
+     */
+    public ParsedToken parse(String token) {
+        return ParsedToken.from(parseClaims(token));
     }
 
     public boolean validateToken(String token) {
@@ -69,9 +90,7 @@ public class JwtTokenProvider {
     }
 
     public Long extractUserId(String token) {
-        final Claims claims = parseClaims(token);
-        final Number userId = claims.get("uid", Number.class);
-        return userId != null ? userId.longValue() : null;
+        return parse(token).userId();
     }
 
     public Claims extractClaims(String token) {
@@ -79,34 +98,35 @@ public class JwtTokenProvider {
     }
 
     public Authentication toAuthentication(String token) {
-        final Claims claims = parseClaims(token);
-        final List<String> roles = claims.get("roles", List.class);
-        final List<GrantedAuthority> authorities = roles == null
-                ? List.of()
-                : roles.stream()
+        return toAuthentication(parse(token), token);
+    }
+
+    /**
+     * Compact tokens carry no email or username, so the principal built from one has neither; use the overload taking
+     * them to fill them in from another source.
+     */
+    public JwtAuthentication toAuthentication(ParsedToken token, Object credentials) {
+        return toAuthentication(token, credentials, token.email(), token.username());
+    }
+
+    public JwtAuthentication toAuthentication(ParsedToken token, Object credentials, String email, String username) {
+        final List<GrantedAuthority> authorities = token.isCompact()
+                ? authorityCodec.authorities(token.roleMask(), token.permissionMask())
+                : token.roles().stream()
                 .map(SimpleGrantedAuthority::new)
                 .map(a -> (GrantedAuthority) a)
                 .toList();
-        String email = claims.get("email", String.class);
-        if (email == null) {
-            email = claims.getSubject();
-        }
-        final String username = claims.get("username", String.class);
         final UserPrincipal principal = UserPrincipal.fromToken(
-                claims.get("uid", Number.class).longValue(),
+                token.userId(),
                 email,
                 username,
                 authorities
         );
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        return new JwtAuthentication(principal, credentials, authorities);
     }
 
     public Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(signingKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private String buildToken(
@@ -114,23 +134,51 @@ public class JwtTokenProvider {
             String email,
             String username,
             Collection<String> roles,
-            java.time.Duration ttl,
+            Duration ttl,
             Map<String, Object> attributes
     ) {
-        final Instant now = Instant.now();
-        return Jwts.builder()
+        return newBuilder(ttl)
                 .subject(email != null ? email : String.valueOf(userId))
-                .issuedAt(Date.from(now))
-                .expiration(Date.from(now.plus(ttl)))
                 .claim("uid", userId)
                 .claim("email", email)
                 .claim("username", username)
                 .claim("roles", roles)
                 .addClaims(attributes)
-                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Compact access token: identity is the user id only and authorities are the {@code rm}/{@code pm} masks from
+     * {@link AuthorityCodec}, which keeps the header small and lets verifiers reuse interned authority lists.
+     */
+    private String buildCompactAccessToken(Long userId, Collection<String> authorities) {
+        final JwtBuilder builder = newBuilder(properties.getAccessTokenTtl())
+                .subject(String.valueOf(userId))
+                .claim("uid", userId)
+                .claim("rm", authorityCodec.roleMask(authorities))
+                .claim("type", ParsedToken.TYPE_ACCESS);
+        final String permissionMask = authorityCodec.permissionMask(authorities);
+        if (permissionMask != null) {
+            builder.claim("pm", permissionMask);
+        }
+        return builder.compact();
+    }
+
+    private JwtBuilder newBuilder(Duration ttl) {
+        final Instant now = Instant.now();
+        final JwtBuilder builder = Jwts.builder();
+        if (keyRing.isAsymmetric()) {
+            builder.header().keyId(keyRing.getActiveKeyId()).and()
+                    .signWith((PrivateKey) keyRing.getSigningKey(), keyRing.signatureAlgorithm());
+        } else {
+            builder.signWith(keyRing.getSigningKey());
+        }
+        return builder
+                .issuedAt(Date.from(now))
+                .claim(ParsedToken.ISSUED_AT_MILLIS, now.getNano() / 1_000_000)
+                .expiration(Date.from(now.plus(ttl)));
+    }
+
     private Collection<String> extractRoleNames(Collection<? extends GrantedAuthority> authorities) {
         return authorities.stream().map(GrantedAuthority::getAuthority).toList();
     }
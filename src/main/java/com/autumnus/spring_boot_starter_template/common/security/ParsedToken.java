@@ -0,0 +1,68 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature has already been verified. Pass this around instead of the raw token so each
+ * request verifies at most once.
+ */
+public record ParsedToken(
+        Long userId,
+        String subject,
+        String email,
+        String username,
+        List<String> roles,
+        Long roleMask,
+        String permissionMask,
+        String type,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+    /**
+     * Milliseconds within the {@code iat} second, which JWT only carries in whole seconds.
+     */
+    static final String ISSUED_AT_MILLIS = "ims";
+
+    static ParsedToken from(Claims claims) {
+        final Number userId = claims.get("uid", Number.class);
+        final List<?> roles = claims.get("roles", List.class);
+        final Number roleMask = claims.get("rm", Number.class);
+        final Number issuedAtMillis = claims.get(ISSUED_AT_MILLIS, Number.class);
+        Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        if (issuedAt != null && issuedAtMillis != null) {
+            issuedAt = issuedAt.plusMillis(issuedAtMillis.longValue());
+        }
+        return new ParsedToken(
+                userId != null ? userId.longValue() : null,
+                claims.getSubject(),
+                claims.get("email", String.class),
+                claims.get("username", String.class),
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                roleMask != null ? roleMask.longValue() : null,
+                claims.get("pm", String.class),
+                claims.get("type", String.class),
+                issuedAt,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    /**
+     * Whether authorities are carried as {@code rm}/{@code pm} masks instead of the {@code roles} list.
+     */
+    public boolean isCompact() {
+        return roleMask != null;
+    }
+
+    public boolean isAccessToken() {
+        return TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+}
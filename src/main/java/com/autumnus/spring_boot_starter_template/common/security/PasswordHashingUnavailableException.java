@@ -0,0 +1,10 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.common.exception.DomainException;
+
+public class PasswordHashingUnavailableException extends DomainException {
+
+    public PasswordHashingUnavailableException() {
+        super("PASSWORD_HASHING_BUSY", "Too many concurrent password checks, please retry shortly");
+    }
+}
@@ -0,0 +1,89 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.modules.users.service.RoleCatalog;
+import com.autumnus.spring_boot_starter_template.modules.users.service.RolesChangedEvent;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserChangedEvent;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserDetailsServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Broadcasts committed security events over Redis pub/sub and applies the ones published by other nodes: token
+ * revocations, {@link UserChangedEvent} and {@link RolesChangedEvent}, so revocations, cached principals and the
+ * {@link RoleCatalog} are kept in step on every node. A node that is disconnected misses messages; it catches up with
+ * watermarks and revoked refresh tokens on its next start, and with user and role changes when its cache entries
+ * expire.
+ */
+public class RedisSecurityEventSync implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSecurityEventSync.class);
+    private static final String USER_CHANGED_PREFIX = "c:";
+    private static final String ROLES_CHANGED = "r";
+
+    private final StringRedisTemplate redisTemplate;
+    private final TokenRevocationRegistry registry;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final RoleCatalog roleCatalog;
+    private final String channel;
+
+    public RedisSecurityEventSync(
+            StringRedisTemplate redisTemplate,
+            TokenRevocationRegistry registry,
+            UserDetailsServiceImpl userDetailsService,
+            RoleCatalog roleCatalog,
+            String channel
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.registry = registry;
+        this.userDetailsService = userDetailsService;
+        this.roleCatalog = roleCatalog;
+        this.channel = channel;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(TokenRevocationEvent event) {
+        send(event.toMessage(), "token revocation");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(UserChangedEvent event) {
+        if (event.userId() != null) {
+            send(USER_CHANGED_PREFIX + event.userId(), "user change");
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(RolesChangedEvent event) {
+        send(ROLES_CHANGED, "role change");
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            final String body = new String(message.getBody(), StandardCharsets.US_ASCII);
+            if (body.startsWith(USER_CHANGED_PREFIX)) {
+                userDetailsService.evict(Long.parseLong(body.substring(USER_CHANGED_PREFIX.length())));
+            } else if (body.equals(ROLES_CHANGED)) {
+                roleCatalog.load();
+            } else {
+                registry.apply(TokenRevocationEvent.fromMessage(body));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring malformed security event message: {}", ex.getMessage());
+        }
+    }
+
+    private void send(String message, String description) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to broadcast {}: {}", description, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over SHA-256 token digests. Bits cannot be cleared, so the filter keeps two generations that each live
+ * for one token lifetime: a digest added to the current generation is still present in the previous one until every
+ * token revoked in it has expired, and the oldest generation is then dropped as a whole.
+ */
+final class RevokedTokenFilter {
+
+    private final int bitCount;
+    private final int hashCount;
+    private final long generationNanos;
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    RevokedTokenFilter(long expectedInsertions, double falsePositiveRate, Duration generationLifetime) {
+        final double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, (long) Math.ceil(bits / 64) * 64));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.generationNanos = generationLifetime.toNanos();
+        this.current = new Generation(bitCount, System.nanoTime());
+        this.previous = null;
+    }
+
+    void add(byte[] digest) {
+        final Generation generation = currentGeneration();
+        final ByteBuffer buffer = ByteBuffer.wrap(digest);
+        final long h1 = buffer.getLong();
+        final long h2 = buffer.getLong() | 1;
+        for (int i = 0; i < hashCount; i++) {
+            generation.set(Math.floorMod(h1 + i * h2, bitCount));
+        }
+    }
+
+    boolean mightContain(byte[] digest) {
+        final Generation generation = currentGeneration();
+        return contains(generation, digest) || contains(previous, digest);
+    }
+
+    private boolean contains(Generation generation, byte[] digest) {
+        if (generation == null) {
+            return false;
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(digest);
+        final long h1 = buffer.getLong();
+        final long h2 = buffer.getLong() | 1;
+        for (int i = 0; i < hashCount; i++) {
+            if (!generation.get(Math.floorMod(h1 + i * h2, bitCount))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Generation currentGeneration() {
+        final Generation generation = current;
+        if (System.nanoTime() - generation.createdAt() < generationNanos) {
+            return generation;
+        }
+        synchronized (this) {
+            if (current == generation) {
+                previous = generation;
+                current = new Generation(bitCount, System.nanoTime());
+            }
+            return current;
+        }
+    }
+
+    private record Generation(AtomicLongArray words, long createdAt) {
+
+        Generation(int bitCount, long createdAt) {
+            this(new AtomicLongArray(bitCount >>> 6), createdAt);
+        }
+
+        void set(int bit) {
+            final int index = bit >>> 6;
+            final long mask = 1L << bit;
+            long word = words.get(index);
+            while ((word & mask) == 0 && !words.weakCompareAndSetVolatile(index, word, word | mask)) {
+                word = words.get(index);
+            }
+        }
+
+        boolean get(int bit) {
+            return (words.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.autumnus.spring_boot_starter_template.common.security;
 
 import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.common.rate_limiting.PreAuthRateLimitingFilter;
 import com.autumnus.spring_boot_starter_template.common.rate_limiting.RateLimitingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,15 +28,18 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final SecurityProperties securityProperties;
     private final RateLimitingFilter rateLimitingFilter;
+    private final PreAuthRateLimitingFilter preAuthRateLimitingFilter;
 
     public SecurityConfig(
             JwtAuthenticationFilter jwtAuthenticationFilter,
             SecurityProperties securityProperties,
-            RateLimitingFilter rateLimitingFilter
+            RateLimitingFilter rateLimitingFilter,
+            PreAuthRateLimitingFilter preAuthRateLimitingFilter
     ) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.securityProperties = securityProperties;
         this.rateLimitingFilter = rateLimitingFilter;
+        this.preAuthRateLimitingFilter = preAuthRateLimitingFilter;
     }
 
     @Bean
@@ -42,21 +49,58 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers(securityProperties.getPublicEndpoints().toArray(new String[0])).permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(preAuthRateLimitingFilter, JwtAuthenticationFilter.class)
                 .addFilterAfter(rateLimitingFilter, JwtAuthenticationFilter.class);
         return http.build();
     }
 
+    /**
+     * These filters are {@code @Component}s, so Boot would also register them with the servlet container, outside the
+     * security chain and in the wrong order. They only run inside the chain configured above.
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        return disabledRegistration(jwtAuthenticationFilter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<PreAuthRateLimitingFilter> preAuthRateLimitingFilterRegistration() {
+        return disabledRegistration(preAuthRateLimitingFilter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitingFilter> rateLimitingFilterRegistration() {
+        return disabledRegistration(rateLimitingFilter);
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
         return configuration.getAuthenticationManager();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        final SecurityProperties.PasswordHashing settings = securityProperties.getPasswordHashing();
+        final int threads = settings.getThreads() > 0
+                ? settings.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        final boolean clustered = securityProperties.getRevocation().getSync() == SecurityProperties.Revocation.Sync.REDIS;
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(BCryptCostCalibrator.calibrate(settings, clustered)),
+                threads,
+                settings.getQueueCapacity(),
+                settings.getMaxWait(),
+                meterRegistry);
+    }
+
+    private static <T extends Filter> FilterRegistrationBean<T> disabledRegistration(T filter) {
+        final FilterRegistrationBean<T> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
     }
 
     @Bean
@@ -0,0 +1,41 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.modules.users.service.RoleCatalog;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserDetailsServiceImpl;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "application.security.revocation", name = "sync", havingValue = "redis")
+public class SecurityEventSyncConfiguration {
+
+    @Bean
+    public RedisSecurityEventSync redisSecurityEventSync(
+            StringRedisTemplate redisTemplate,
+            TokenRevocationRegistry registry,
+            UserDetailsServiceImpl userDetailsService,
+            RoleCatalog roleCatalog,
+            SecurityProperties properties
+    ) {
+        return new RedisSecurityEventSync(
+                redisTemplate, registry, userDetailsService, roleCatalog, properties.getRevocation().getChannel());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer securityEventListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            RedisSecurityEventSync sync,
+            SecurityProperties properties
+    ) {
+        final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(sync, new ChannelTopic(properties.getRevocation().getChannel()));
+        return container;
+    }
+}
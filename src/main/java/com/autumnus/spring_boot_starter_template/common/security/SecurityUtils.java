@@ -24,6 +24,19 @@ public final class SecurityUtils {
         return Optional.empty();
     }
 
+    /**
+     * Allocation-free variant of {@link #getCurrentUserId()} for hot paths.
+     */
+    public static long getCurrentUserIdOrDefault(long defaultValue) {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && authentication.getPrincipal() instanceof UserPrincipal userPrincipal
+                && userPrincipal.getUserId() != null) {
+            return userPrincipal.getUserId();
+        }
+        return defaultValue;
+    }
+
     public static boolean hasRole(String role) {
         final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null) {
@@ -0,0 +1,34 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 of a raw token, used wherever a token must be identified without retaining it.
+ */
+public final class TokenHash {
+
+    private static final MessageDigest PROTOTYPE = newDigest();
+
+    private TokenHash() {
+    }
+
+    public static byte[] sha256(String token) {
+        MessageDigest digest;
+        try {
+            digest = (MessageDigest) PROTOTYPE.clone();
+        } catch (CloneNotSupportedException ex) {
+            digest = newDigest();
+        }
+        return digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * A revocation to apply on every node: either all tokens of {@code userId} issued before {@code issuedBefore}, or the
+ * single token whose SHA-256 digest is {@code tokenDigest}.
+ */
+public record TokenRevocationEvent(Long userId, Instant issuedBefore, byte[] tokenDigest) {
+
+    private static final String USER_PREFIX = "w:";
+    private static final String TOKEN_PREFIX = "t:";
+
+    public static TokenRevocationEvent forUser(Long userId, Instant issuedBefore) {
+        return new TokenRevocationEvent(userId, issuedBefore, null);
+    }
+
+    public static TokenRevocationEvent forToken(byte[] tokenDigest) {
+        return new TokenRevocationEvent(null, null, tokenDigest);
+    }
+
+    public boolean isUserRevocation() {
+        return userId != null;
+    }
+
+    String toMessage() {
+        return isUserRevocation()
+                ? USER_PREFIX + userId + ':' + issuedBefore.toEpochMilli()
+                : TOKEN_PREFIX + HexFormat.of().formatHex(tokenDigest);
+    }
+
+    static TokenRevocationEvent fromMessage(String message) {
+        if (message.startsWith(USER_PREFIX)) {
+            final int separator = message.indexOf(':', USER_PREFIX.length());
+            return forUser(
+                    Long.parseLong(message.substring(USER_PREFIX.length(), separator)),
+                    Instant.ofEpochMilli(Long.parseLong(message.substring(separator + 1))));
+        }
+        if (message.startsWith(TOKEN_PREFIX)) {
+            return forToken(HexFormat.of().parseHex(message.substring(TOKEN_PREFIX.length())));
+        }
+        throw new IllegalArgumentException("Unknown token revocation message");
+    }
+}
@@ -0,0 +1,113 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.RefreshTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.TokenWatermark;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Answers "has this token been revoked?" from memory. Password changes and similar events set a per-user watermark
+ * (persisted as {@code users.tokens_valid_after}): every token of that user issued before it is rejected.
+ * Individually revoked refresh tokens go into a {@link RevokedTokenFilter} by their {@link TokenHash} digest; a hit
+ * there is only a hint and callers confirm it against the database. Both are rebuilt from the database on startup,
+ * and revocations are applied once the surrounding transaction commits.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration retention;
+    private final Map<Long, Long> watermarks = new ConcurrentHashMap<>();
+    private final RevokedTokenFilter revokedTokens;
+
+    public TokenRevocationRegistry(
+            SecurityProperties properties,
+            UserRepository userRepository,
+            RefreshTokenRepository refreshTokenRepository,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        this.userRepository = userRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.eventPublisher = eventPublisher;
+        final Duration refreshTtl = properties.getRefreshTokenTtl();
+        final Duration accessTtl = properties.getAccessTokenTtl();
+        this.retention = accessTtl.compareTo(refreshTtl) > 0 ? accessTtl : refreshTtl;
+        final SecurityProperties.Revocation revocation = properties.getRevocation();
+        this.revokedTokens = new RevokedTokenFilter(
+                revocation.getExpectedRevokedTokens(),
+                revocation.getFalsePositiveRate(),
+                refreshTtl);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        final Instant now = Instant.now();
+        for (TokenWatermark watermark : userRepository.findTokenWatermarksSince(now.minus(retention))) {
+            applyWatermark(watermark.userId(), watermark.tokensValidAfter());
+        }
+        try (Stream<byte[]> tokenHashes = refreshTokenRepository.streamRevokedTokenHashes(now)) {
+            tokenHashes.forEach(revokedTokens::add);
+        }
+    }
+
+    /**
+     * Whether a token issued to {@code userId} at {@code issuedAt} is older than the user's watermark. Both are compared
+     * in milliseconds, so a token issued right after a password change or reset is accepted.
+     */
+    public boolean isRevoked(Long userId, Instant issuedAt) {
+        if (userId == null || watermarks.isEmpty()) {
+            return false;
+        }
+        final Long watermark = watermarks.get(userId);
+        return watermark != null && (issuedAt == null || issuedAt.toEpochMilli() < watermark);
+    }
+
+    /**
+     * Bloom filter lookup: {@code false} means the token was definitely not revoked through {@link #revokeToken}.
+     */
+    public boolean mightBeRevoked(byte[] tokenHash) {
+        return revokedTokens.mightContain(tokenHash);
+    }
+
+    public void revokeUserTokens(Long userId, Instant issuedBefore) {
+        eventPublisher.publishEvent(TokenRevocationEvent.forUser(userId, issuedBefore));
+    }
+
+    public void revokeToken(byte[] tokenHash) {
+        eventPublisher.publishEvent(TokenRevocationEvent.forToken(tokenHash));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRevocation(TokenRevocationEvent event) {
+        apply(event);
+    }
+
+    void apply(TokenRevocationEvent event) {
+        if (event.isUserRevocation()) {
+            applyWatermark(event.userId(), event.issuedBefore());
+            final long cutoff = Instant.now().minus(retention).toEpochMilli();
+            watermarks.values().removeIf(watermark -> watermark < cutoff);
+        } else {
+            revokedTokens.add(event.tokenDigest());
+        }
+    }
+
+    private void applyWatermark(Long userId, Instant issuedBefore) {
+        watermarks.merge(userId, issuedBefore.toEpochMilli(), Math::max);
+    }
+}
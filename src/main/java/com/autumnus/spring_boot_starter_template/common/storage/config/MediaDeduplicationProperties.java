@@ -0,0 +1,35 @@
+package com.autumnus.spring_boot_starter_template.common.storage.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "application.storage.deduplication")
+public class MediaDeduplicationProperties {
+
+    /**
+     * Stores new uploads under their content hash and shares them between references; when disabled every upload
+     * gets its own objects.
+     */
+    private boolean enabled = true;
+
+    private final Gc gc = new Gc();
+
+    /**
+     * Periodic removal of media objects that have had no references for at least {@code grace-period}.
+     */
+    @Getter
+    @Setter
+    public static class Gc {
+
+        private boolean enabled = true;
+        private Duration interval = Duration.ofHours(1);
+        private Duration initialDelay = Duration.ofMinutes(5);
+        private Duration gracePeriod = Duration.ofHours(24);
+        private int batchSize = 100;
+    }
+}
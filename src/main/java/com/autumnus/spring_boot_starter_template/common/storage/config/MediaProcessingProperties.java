@@ -0,0 +1,45 @@
+package com.autumnus.spring_boot_starter_template.common.storage.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "application.storage.processing")
+public class MediaProcessingProperties {
+
+    /**
+     * Threads decoding and resizing images; 0 uses one per CPU.
+     */
+    private int threads = 0;
+
+    /**
+     * Renders image variants on their first request instead of on upload. Only applies to content-addressed uploads.
+     */
+    private boolean lazyVariants = true;
+
+    /**
+     * Prefix of the URLs under which lazily rendered variants are served.
+     */
+    private String variantBaseUrl = "/api/v1/media";
+
+    /**
+     * Upper bound on the bytes of rendered variants kept in memory.
+     */
+    private DataSize variantCacheSize = DataSize.ofMegabytes(64);
+
+    /**
+     * How long a variant that could not be found or rendered is answered from the cache before it is tried again.
+     */
+    private Duration variantFailureTtl = Duration.ofMinutes(1);
+
+    /**
+     * How long clients, CDNs and the in-memory cache may keep a rendered variant, which bounds how long a released
+     * photo is still served.
+     */
+    private Duration variantMaxAge = Duration.ofHours(1);
+}
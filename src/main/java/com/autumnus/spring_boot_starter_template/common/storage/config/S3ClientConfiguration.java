@@ -7,18 +7,27 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
 
 @Configuration
-@EnableConfigurationProperties(S3Properties.class)
+@EnableConfigurationProperties({S3Properties.class, MediaProcessingProperties.class, MediaDeduplicationProperties.class})
 public class S3ClientConfiguration {
 
     @Bean
-    public S3Client s3Client(S3Properties properties) {
-        final S3ClientBuilder builder = S3Client.builder()
-                .region(Region.of(properties.getRegion()));
+    public S3AsyncClient s3AsyncClient(S3Properties properties) {
+        final S3AsyncClientBuilder builder = S3AsyncClient.builder()
+                .region(Region.of(properties.getRegion()))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(properties.getMaxConcurrency()))
+                .multipartEnabled(true)
+                .multipartConfiguration(MultipartConfiguration.builder()
+                        .thresholdInBytes(properties.getMultipartThreshold().toBytes())
+                        .minimumPartSizeInBytes(properties.getMultipartPartSize().toBytes())
+                        .build());
 
         if (properties.getEndpoint() != null) {
             builder.endpointOverride(properties.getEndpoint());
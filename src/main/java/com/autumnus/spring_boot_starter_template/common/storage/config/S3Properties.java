@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 import java.net.URI;
@@ -33,4 +34,22 @@ public class S3Properties {
      * Optional base URL for publicly accessible assets. Example: https://cdn.example.com
      */
     private String publicBaseUrl;
+
+    /**
+     * Maximum number of concurrent HTTP connections of the async S3 client.
+     */
+    private int maxConcurrency = 64;
+
+    /**
+     * Upper bound on the bytes of objects (originals, variants and manifests) being uploaded at the same time; further
+     * uploads wait for a slot. A single object larger than this is uploaded alone.
+     */
+    private DataSize maxInFlightBytes = DataSize.ofMegabytes(64);
+
+    /**
+     * Objects at least this large are uploaded as multipart uploads with parts sent in parallel.
+     */
+    private DataSize multipartThreshold = DataSize.ofMegabytes(16);
+
+    private DataSize multipartPartSize = DataSize.ofMegabytes(8);
 }
@@ -0,0 +1,19 @@
+package com.autumnus.spring_boot_starter_template.common.storage.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+@Tag(name = "Media", description = "Media asset delivery")
+@RequestMapping("/api/v1/media")
+public interface MediaApi {
+
+    @Operation(
+            summary = "Get an image variant",
+            description = "Returns the web, mobile or thumb variant of an image, rendering it on its first request")
+    @GetMapping("/{assetId}/{variant}")
+    ResponseEntity<byte[]> getVariant(@PathVariable String assetId, @PathVariable String variant);
+}
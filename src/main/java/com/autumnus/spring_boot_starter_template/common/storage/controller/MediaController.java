@@ -0,0 +1,59 @@
+package com.autumnus.spring_boot_starter_template.common.storage.controller;
+
+import com.autumnus.spring_boot_starter_template.common.exception.ResourceNotFoundException;
+import com.autumnus.spring_boot_starter_template.common.storage.config.MediaProcessingProperties;
+import com.autumnus.spring_boot_starter_template.common.storage.dto.MediaVariantContent;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaVariant;
+import com.autumnus.spring_boot_starter_template.common.storage.service.MediaVariantService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Serves raw image bytes rather than the {@code ApiResponse} envelope. Assets are addressed by content hash, so a
+ * response never changes while the asset exists; it is cached publicly for {@code variant-max-age} only, so deleted or
+ * replaced photos stop being served once that has passed.
+ */
+@RestController
+@RequestMapping("/api/v1/media")
+public class MediaController implements MediaApi {
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final MediaVariantService mediaVariantService;
+    private final CacheControl cacheControl;
+
+    public MediaController(MediaVariantService mediaVariantService, MediaProcessingProperties properties) {
+        this.mediaVariantService = mediaVariantService;
+        this.cacheControl = CacheControl.maxAge(properties.getVariantMaxAge()).cachePublic();
+    }
+
+    @Override
+    public ResponseEntity<byte[]> getVariant(String assetId, String variant) {
+        if (!CONTENT_HASH.matcher(assetId).matches()) {
+            throw new ResourceNotFoundException("Media asset not found");
+        }
+        final MediaVariantContent content = mediaVariantService.getVariant(assetId, parseVariant(variant));
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(content.contentType()))
+                .body(content.content());
+    }
+
+    private static MediaVariant parseVariant(String variant) {
+        try {
+            final MediaVariant parsed = MediaVariant.valueOf(variant.toUpperCase(Locale.ROOT));
+            if (parsed != MediaVariant.ORIGINAL) {
+                return parsed;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // fall through to not found
+        }
+        throw new ResourceNotFoundException("Media variant not found");
+    }
+}
@@ -1,4 +1,13 @@
 package com.autumnus.spring_boot_starter_template.common.storage.dto;
 
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaFileDescriptor;
+
 public record MediaFileResponse(String url, String contentType, long size) {
+
+    public static MediaFileResponse from(MediaFileDescriptor descriptor) {
+        if (descriptor == null) {
+            return null;
+        }
+        return new MediaFileResponse(descriptor.url(), descriptor.contentType(), descriptor.size());
+    }
 }
@@ -1,6 +1,23 @@
 package com.autumnus.spring_boot_starter_template.common.storage.dto;
 
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaManifest;
+
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public record MediaResourceResponse(MediaFileResponse original, Map<String, MediaFileResponse> variants) {
+
+    public static MediaResourceResponse from(MediaManifest manifest) {
+        if (manifest == null) {
+            return null;
+        }
+        Map<String, MediaFileResponse> variants = null;
+        if (manifest.variants() != null) {
+            variants = new LinkedHashMap<>();
+            for (var entry : manifest.variants().entrySet()) {
+                variants.putIfAbsent(entry.getKey().name().toLowerCase(), MediaFileResponse.from(entry.getValue()));
+            }
+        }
+        return new MediaResourceResponse(MediaFileResponse.from(manifest.original()), variants);
+    }
 }
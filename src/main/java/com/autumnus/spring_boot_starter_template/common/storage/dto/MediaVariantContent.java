@@ -0,0 +1,4 @@
+package com.autumnus.spring_boot_starter_template.common.storage.dto;
+
+public record MediaVariantContent(String contentType, byte[] content) {
+}
@@ -0,0 +1,56 @@
+package com.autumnus.spring_boot_starter_template.common.storage.entity;
+
+import com.autumnus.spring_boot_starter_template.common.persistence.BaseEntity;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaKind;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaManifest;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * One stored upload, shared by every reference to the same content. {@code unreferencedSince} is set when the last
+ * reference is released, or when an upload claims the row, and cleared when a new reference is taken.
+ */
+@Entity
+@Table(name = "media_objects", indexes = {
+        @Index(name = "idx_media_objects_unreferenced", columnList = "unreferencedSince")
+})
+@Getter
+@Setter
+public class MediaObject extends BaseEntity {
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, unique = true)
+    private String basePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private MediaKind kind;
+
+    @Column(nullable = false)
+    private long size;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private MediaManifest manifest;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private MediaObjectState state;
+
+    @Column(nullable = false)
+    private long referenceCount;
+
+    private Instant unreferencedSince;
+}
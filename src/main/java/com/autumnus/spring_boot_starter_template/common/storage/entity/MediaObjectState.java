@@ -0,0 +1,14 @@
+package com.autumnus.spring_boot_starter_template.common.storage.entity;
+
+public enum MediaObjectState {
+    /**
+     * Claimed by an upload that has not been registered yet; collected like an unreferenced object if it never is.
+     */
+    PENDING,
+    STORED,
+    /**
+     * Taken by the collector, which deletes the row once its S3 objects are gone. Never acquired, claimed or
+     * registered again.
+     */
+    DELETING
+}
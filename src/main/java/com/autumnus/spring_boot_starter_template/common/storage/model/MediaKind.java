@@ -30,6 +30,10 @@ public enum MediaKind {
         this.maxSize = maxSize;
     }
 
+    public long getMaxSize() {
+        return maxSize;
+    }
+
     public void validate(String mimeType, long size) {
         if (mimeType == null || !allowedMimeTypes.contains(mimeType.toLowerCase(Locale.ROOT))) {
             throw new MediaValidationException("Unsupported MIME type: " + mimeType);
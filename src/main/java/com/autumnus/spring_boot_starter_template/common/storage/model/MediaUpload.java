@@ -1,8 +1,18 @@
 package com.autumnus.spring_boot_starter_template.common.storage.model;
 
-public record MediaUpload(String originalFilename, String contentType, byte[] content) {
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
 
-    public long size() {
-        return content == null ? 0 : content.length;
+/**
+ * Content to store. It is read once, as a stream, so a multipart file can be passed without loading it into memory.
+ */
+public record MediaUpload(String originalFilename, String contentType, long size, InputStreamSource content) {
+
+    public static MediaUpload of(String originalFilename, String contentType, byte[] content) {
+        return new MediaUpload(
+                originalFilename,
+                contentType,
+                content == null ? 0 : content.length,
+                content == null ? null : new ByteArrayResource(content));
     }
 }
@@ -0,0 +1,139 @@
+package com.autumnus.spring_boot_starter_template.common.storage.repository;
+
+import com.autumnus.spring_boot_starter_template.common.storage.entity.MediaObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface MediaObjectRepository extends JpaRepository<MediaObject, Long> {
+
+    Optional<MediaObject> findByContentHash(String contentHash);
+
+    boolean existsByBasePath(String basePath);
+
+    /**
+     * Takes a reference to already stored content. Returns 0 when the content is not stored yet.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update MediaObject m
+            set m.referenceCount = m.referenceCount + 1, m.unreferencedSince = null, m.updatedAt = :now
+            where m.contentHash = :contentHash
+              and m.state = com.autumnus.spring_boot_starter_template.common.storage.entity.MediaObjectState.STORED
+            """)
+    int acquire(@Param("contentHash") String contentHash, @Param("now") Instant now);
+
+    /**
+     * Records the keys an upload is about to write as an unreferenced {@code PENDING} object, committed in its own
+     * transaction before anything is uploaded, so the collector reclaims them if the upload fails or its caller rolls
+     * back. A pending row left by an earlier attempt has its grace period restarted. Returns 0 when the collector is
+     * deleting the content.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = """
+            insert into media_objects (content_hash, base_path, kind, size, manifest, state, reference_count,
+                                       unreferenced_since, version, created_at, updated_at)
+            values (:contentHash, :basePath, :kind, :size, cast(:manifest as jsonb), 'PENDING', 0, :now, 0, :now, :now)
+            on conflict (content_hash) do update
+            set unreferenced_since = case when media_objects.state = 'PENDING' then :now
+                                          else media_objects.unreferenced_since end,
+                updated_at = :now
+            where media_objects.state <> 'DELETING'
+            """, nativeQuery = true)
+    int claim(
+            @Param("contentHash") String contentHash,
+            @Param("basePath") String basePath,
+            @Param("kind") String kind,
+            @Param("size") long size,
+            @Param("manifest") String manifest,
+            @Param("now") Instant now
+    );
+
+    /**
+     * Marks freshly uploaded content as stored with one reference, or takes a reference if a concurrent upload of the
+     * same content got there first. Returns 0 when the collector is deleting the content.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into media_objects (content_hash, base_path, kind, size, manifest, state, reference_count, version,
+                                       created_at, updated_at)
+            values (:contentHash, :basePath, :kind, :size, cast(:manifest as jsonb), 'STORED', 1, 0, :now, :now)
+            on conflict (content_hash) do update
+            set manifest = case when media_objects.state = 'STORED' then media_objects.manifest
+                                else excluded.manifest end,
+                state = 'STORED',
+                reference_count = media_objects.reference_count + 1,
+                unreferenced_since = null,
+                updated_at = :now
+            where media_objects.state <> 'DELETING'
+            """, nativeQuery = true)
+    int register(
+            @Param("contentHash") String contentHash,
+            @Param("basePath") String basePath,
+            @Param("kind") String kind,
+            @Param("size") long size,
+            @Param("manifest") String manifest,
+            @Param("now") Instant now
+    );
+
+    /**
+     * Drops one reference; the object becomes eligible for collection when the last one is gone. Returns 0 when no
+     * referenced object is stored under {@code basePath}.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update MediaObject m
+            set m.referenceCount = m.referenceCount - 1,
+                m.unreferencedSince = case when m.referenceCount = 1 then :now else m.unreferencedSince end,
+                m.updatedAt = :now
+            where m.basePath = :basePath and m.referenceCount > 0
+            """)
+    int release(@Param("basePath") String basePath, @Param("now") Instant now);
+
+    /**
+     * Locks a batch of objects unreferenced since before {@code cutoff}, skipping rows another collector holds. Rows a
+     * collector marked {@code DELETING} before {@code cutoff} and never removed are taken again.
+     */
+    @Query(value = """
+            select * from media_objects
+            where reference_count = 0 and unreferenced_since < :cutoff
+              and (state <> 'DELETING' or updated_at < :cutoff)
+            order by unreferenced_since
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<MediaObject> lockUnreferencedBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    /**
+     * Tombstones locked objects, so once the transaction commits uploads of the same content neither acquire nor
+     * reclaim them while their S3 objects are deleted.
+     */
+    @Modifying
+    @Query("""
+            update MediaObject m
+            set m.state = com.autumnus.spring_boot_starter_template.common.storage.entity.MediaObjectState.DELETING,
+                m.updatedAt = :now
+            where m.id in :ids
+            """)
+    int markDeleting(@Param("ids") List<Long> ids, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            delete from MediaObject m
+            where m.id in :ids
+              and m.state = com.autumnus.spring_boot_starter_template.common.storage.entity.MediaObjectState.DELETING
+            """)
+    int deleteDeleting(@Param("ids") List<Long> ids);
+}
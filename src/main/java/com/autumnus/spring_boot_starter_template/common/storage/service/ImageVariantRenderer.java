@@ -0,0 +1,240 @@
+package com.autumnus.spring_boot_starter_template.common.storage.service;
+
+import com.autumnus.spring_boot_starter_template.common.storage.config.MediaProcessingProperties;
+import com.autumnus.spring_boot_starter_template.common.storage.exception.MediaStorageException;
+import com.autumnus.spring_boot_starter_template.common.storage.exception.MediaValidationException;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaVariant;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaVariantDefinition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import net.coobird.thumbnailator.Thumbnails;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Decodes an image once, scales its variants in a cascade and encodes them in parallel on a dedicated fork/join pool.
+ * An image's encoding tasks are forked from the task that decoded it, so workers finish the images they have started
+ * before picking up new ones and at most about one decoded image per worker is held in memory. Pool usage is exported
+ * as {@code executor.*} metrics tagged {@code name=mediaProcessing}.
+ */
+@Component
+public class ImageVariantRenderer implements DisposableBean {
+
+    private static final int MIN_OVERSAMPLING = 2;
+
+    private final ForkJoinPool pool;
+
+    public ImageVariantRenderer(MediaProcessingProperties properties, MeterRegistry meterRegistry) {
+        final int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("media-processing-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        new ExecutorServiceMetrics(pool, "mediaProcessing", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public CompletableFuture<Map<MediaVariant, byte[]>> render(
+            Path source,
+            String extension,
+            List<MediaVariantDefinition> definitions
+    ) {
+        return CompletableFuture.supplyAsync(() -> renderAll(source, extension, definitions), pool);
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Scales each variant from the smallest already rendered image that covers its bounds (WEB from the decoded
+     * source, MOBILE from WEB, THUMB from MOBILE) and forks its encoding while the next one is scaled.
+     */
+    private Map<MediaVariant, byte[]> renderAll(Path source, String extension, List<MediaVariantDefinition> definitions) {
+        final List<MediaVariantDefinition> ordered = definitions.stream()
+                .sorted(Comparator.comparingLong(ImageVariantRenderer::area).reversed())
+                .toList();
+        final BufferedImage decoded = decode(source, ordered.get(0));
+        final Map<MediaVariant, ForkJoinTask<byte[]>> encodings = new EnumMap<>(MediaVariant.class);
+        BufferedImage previous = decoded;
+        MediaVariantDefinition previousDefinition = null;
+        for (MediaVariantDefinition definition : ordered) {
+            final BufferedImage base = previousDefinition != null && covers(previousDefinition, definition)
+                    ? previous
+                    : decoded;
+            final BufferedImage scaled = scale(base, definition);
+            final Float quality = scaled == decoded ? null : definition.quality();
+            encodings.put(definition.variant(), ForkJoinTask.adapt(() -> encode(scaled, extension, quality)).fork());
+            previous = scaled;
+            previousDefinition = definition;
+        }
+        final Map<MediaVariant, byte[]> variants = new EnumMap<>(MediaVariant.class);
+        for (MediaVariantDefinition definition : definitions) {
+            variants.put(definition.variant(), encodings.get(definition.variant()).join());
+        }
+        return variants;
+    }
+
+    /**
+     * Decodes the image, skipping rows and columns when it is at least twice as large as {@code largest} needs.
+     */
+    private BufferedImage decode(Path source, MediaVariantDefinition largest) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            final Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new MediaValidationException("Unable to read image content");
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                final ImageReadParam param = reader.getDefaultReadParam();
+                final int factor = subsamplingFactor(reader.getWidth(0), reader.getHeight(0), largest);
+                if (factor > 1) {
+                    param.setSourceSubsampling(factor, factor, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new MediaValidationException("Failed to read image content");
+        }
+    }
+
+    /**
+     * Reads only the header of the image and checks that it has a format ImageIO can decode and positive dimensions;
+     * used when variants are not rendered at upload time.
+     */
+    static void verify(Path source) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            final Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new MediaValidationException("Unable to read image content");
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if (reader.getWidth(0) <= 0 || reader.getHeight(0) <= 0) {
+                    throw new MediaValidationException("Unable to read image content");
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new MediaValidationException("Unable to read image content");
+        }
+    }
+
+    /**
+     * Subsampling picks every n-th pixel without filtering, so it stops at twice the target size and leaves the rest
+     * of the reduction to the filtered downscale.
+     */
+    static int subsamplingFactor(int width, int height, MediaVariantDefinition largest) {
+        final double scale = Math.min((double) largest.maxWidth() / width, (double) largest.maxHeight() / height);
+        if (scale >= 1) {
+            return 1;
+        }
+        return Math.max(1, (int) Math.floor(1 / (MIN_OVERSAMPLING * scale)));
+    }
+
+    private static BufferedImage scale(BufferedImage image, MediaVariantDefinition definition) {
+        if (image.getWidth() <= definition.maxWidth() && image.getHeight() <= definition.maxHeight()) {
+            return image;
+        }
+        try {
+            return Thumbnails.of(image)
+                    .size(definition.maxWidth(), definition.maxHeight())
+                    .keepAspectRatio(true)
+                    .asBufferedImage();
+        } catch (IOException e) {
+            throw new MediaStorageException("Failed to create image variant", e);
+        }
+    }
+
+    /**
+     * Encodes with {@code quality} when given, otherwise with the writer's defaults.
+     */
+    private static byte[] encode(BufferedImage image, String extension, Float quality) {
+        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(extension);
+        if (!writers.hasNext()) {
+            throw new MediaStorageException("No image writer for format: " + extension);
+        }
+        final ImageWriter writer = writers.next();
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(stream)) {
+            writer.setOutput(output);
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            if (quality != null && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(normalizeImageForExtension(image, extension), null, null), param);
+        } catch (IOException e) {
+            throw new MediaStorageException("Failed to create image variant", e);
+        } finally {
+            writer.dispose();
+        }
+        return stream.toByteArray();
+    }
+
+    /**
+     * JPEG has no alpha channel: transparent pixels are flattened onto white, at variant size.
+     */
+    private static BufferedImage normalizeImageForExtension(BufferedImage image, String extension) {
+        final boolean jpeg = "jpg".equalsIgnoreCase(extension) || "jpeg".equalsIgnoreCase(extension);
+        if (!jpeg || !image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        final BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = converted.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return converted;
+    }
+
+    private static boolean covers(MediaVariantDefinition outer, MediaVariantDefinition inner) {
+        return outer.maxWidth() >= inner.maxWidth() && outer.maxHeight() >= inner.maxHeight();
+    }
+
+    private static long area(MediaVariantDefinition definition) {
+        return (long) definition.maxWidth() * definition.maxHeight();
+    }
+}
@@ -0,0 +1,57 @@
+package com.autumnus.spring_boot_starter_template.common.storage.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking, first-come first-served byte budget. {@link #acquire} completes once the bytes fit; a request larger
+ * than the whole budget is admitted alone instead of waiting forever.
+ */
+class InFlightBytesLimiter {
+
+    private final long capacity;
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    private long available;
+
+    InFlightBytesLimiter(long capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("In-flight byte budget must be positive");
+        }
+        this.capacity = capacity;
+        this.available = capacity;
+    }
+
+    /**
+     * Returns the number of bytes actually reserved, which must be passed to {@link #release}.
+     */
+    CompletableFuture<Long> acquire(long bytes) {
+        final long permits = Math.min(Math.max(bytes, 1), capacity);
+        synchronized (this) {
+            if (waiters.isEmpty() && available >= permits) {
+                available -= permits;
+                return CompletableFuture.completedFuture(permits);
+            }
+            final Waiter waiter = new Waiter(permits, new CompletableFuture<>());
+            waiters.add(waiter);
+            return waiter.future();
+        }
+    }
+
+    void release(long permits) {
+        final Queue<Waiter> admitted = new ArrayDeque<>();
+        synchronized (this) {
+            available += permits;
+            while (!waiters.isEmpty() && available >= waiters.peek().permits()) {
+                final Waiter waiter = waiters.poll();
+                available -= waiter.permits();
+                admitted.add(waiter);
+            }
+        }
+        // Completed outside the lock: the continuations start the next uploads.
+        admitted.forEach(waiter -> waiter.future().complete(waiter.permits()));
+    }
+
+    private record Waiter(long permits, CompletableFuture<Long> future) {
+    }
+}
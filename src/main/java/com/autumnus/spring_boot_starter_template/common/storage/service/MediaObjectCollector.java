@@ -0,0 +1,109 @@
+package com.autumnus.spring_boot_starter_template.common.storage.service;
+
+import com.autumnus.spring_boot_starter_template.common.storage.config.MediaDeduplicationProperties;
+import com.autumnus.spring_boot_starter_template.common.storage.entity.MediaObject;
+import com.autumnus.spring_boot_starter_template.common.storage.repository.MediaObjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes media objects that have had no references for the grace period. Each batch is locked with
+ * {@code for update skip locked} and marked {@code DELETING} in a short transaction, so nodes running the collector
+ * concurrently take different batches and uploads of the same content stop using the rows without waiting on S3. The
+ * batch's keys are then deleted with {@code DeleteObjects} outside any transaction, and the rows removed afterwards.
+ * Objects deleted and time taken are exported as {@code media.gc.objects} and {@code media.gc.duration}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.storage.deduplication.gc", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MediaObjectCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaObjectCollector.class);
+
+    private final MediaObjectRepository mediaObjectRepository;
+    private final MediaStorageService mediaStorageService;
+    private final MediaVariantService mediaVariantService;
+    private final MediaDeduplicationProperties.Gc properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter deletedCounter;
+    private final Timer timer;
+
+    public MediaObjectCollector(
+            MediaObjectRepository mediaObjectRepository,
+            MediaStorageService mediaStorageService,
+            MediaVariantService mediaVariantService,
+            MediaDeduplicationProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.mediaObjectRepository = mediaObjectRepository;
+        this.mediaStorageService = mediaStorageService;
+        this.mediaVariantService = mediaVariantService;
+        this.properties = properties.getGc();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deletedCounter = Counter.builder("media.gc.objects")
+                .description("Unreferenced media objects deleted by the collector")
+                .register(meterRegistry);
+        this.timer = Timer.builder("media.gc.duration")
+                .description("Time spent deleting unreferenced media objects per pass")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${application.storage.deduplication.gc.initial-delay:PT5M}",
+            fixedDelayString = "${application.storage.deduplication.gc.interval:PT1H}")
+    public void run() {
+        final long start = System.nanoTime();
+        final Instant cutoff = Instant.now().minus(properties.getGracePeriod());
+        long deleted = 0;
+        try {
+            int batch;
+            do {
+                batch = collectBatch(cutoff);
+                deleted += batch;
+            } while (batch == properties.getBatchSize());
+        } catch (RuntimeException ex) {
+            log.warn("Media object collection stopped after {} objects: {}", deleted, ex.getMessage());
+        }
+        final long elapsedNanos = System.nanoTime() - start;
+        timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        deletedCounter.increment(deleted);
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced media objects in {} ms", deleted, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    /**
+     * If the S3 delete fails the rows stay {@code DELETING} and are taken again once they are older than the grace
+     * period.
+     */
+    private int collectBatch(Instant cutoff) {
+        final List<MediaObject> objects = transactionTemplate.execute(status -> {
+            final List<MediaObject> batch = mediaObjectRepository.lockUnreferencedBatch(cutoff, properties.getBatchSize());
+            if (!batch.isEmpty()) {
+                mediaObjectRepository.markDeleting(batch.stream().map(MediaObject::getId).toList(), Instant.now());
+            }
+            return batch;
+        });
+        if (objects == null || objects.isEmpty()) {
+            return 0;
+        }
+        objects.forEach(object -> mediaVariantService.invalidate(object.getContentHash()));
+        mediaStorageService.deleteKeys(objects.stream()
+                .flatMap(object -> mediaStorageService.keysOf(object.getManifest()).stream())
+                .toList()).join();
+        mediaObjectRepository.deleteDeleting(objects.stream().map(MediaObject::getId).toList());
+        return objects.size();
+    }
+}
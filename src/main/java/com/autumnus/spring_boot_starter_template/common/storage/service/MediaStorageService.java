@@ -1,7 +1,10 @@
 package com.autumnus.spring_boot_starter_template.common.storage.service;
 
+import com.autumnus.spring_boot_starter_template.common.storage.config.MediaDeduplicationProperties;
+import com.autumnus.spring_boot_starter_template.common.storage.config.MediaProcessingProperties;
 import com.autumnus.spring_boot_starter_template.common.storage.config.S3Properties;
 import com.autumnus.spring_boot_starter_template.common.storage.dto.MediaAsset;
+import com.autumnus.spring_boot_starter_template.common.storage.entity.MediaObject;
 import com.autumnus.spring_boot_starter_template.common.storage.exception.MediaStorageException;
 import com.autumnus.spring_boot_starter_template.common.storage.exception.MediaValidationException;
 import com.autumnus.spring_boot_starter_template.common.storage.model.MediaFileDescriptor;
@@ -10,32 +13,39 @@ import com.autumnus.spring_boot_starter_template.common.storage.model.MediaManif
 import com.autumnus.spring_boot_starter_template.common.storage.model.MediaUpload;
 import com.autumnus.spring_boot_starter_template.common.storage.model.MediaVariant;
 import com.autumnus.spring_boot_starter_template.common.storage.model.MediaVariantDefinition;
+import com.autumnus.spring_boot_starter_template.common.storage.repository.MediaObjectRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import net.coobird.thumbnailator.Thumbnails;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.core.FileTransformerConfiguration;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.S3Exception;
-
-import javax.imageio.ImageIO;
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -43,214 +53,648 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @Service
 public class MediaStorageService {
 
     private static final Logger log = LoggerFactory.getLogger(MediaStorageService.class);
 
+    private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
+    private static final int DELETE_BATCH_SIZE = 1000;
     private static final DateTimeFormatter YEAR_FORMATTER = DateTimeFormatter.ofPattern("yyyy");
     private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("MM");
     private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("dd");
 
-    private static final List<MediaVariantDefinition> IMAGE_VARIANTS = List.of(
+    static final List<MediaVariantDefinition> IMAGE_VARIANTS = List.of(
             new MediaVariantDefinition(MediaVariant.WEB, 1920, 1080, 0.85f),
             new MediaVariantDefinition(MediaVariant.MOBILE, 1080, 1080, 0.8f),
             new MediaVariantDefinition(MediaVariant.THUMB, 320, 320, 0.8f)
     );
 
-    private final S3Client s3Client;
+    private final S3AsyncClient s3Client;
     private final S3Properties properties;
     private final ObjectMapper objectMapper;
+    private final ImageVariantRenderer imageVariantRenderer;
+    private final MediaObjectRepository mediaObjectRepository;
+    private final MediaDeduplicationProperties deduplication;
+    private final MediaProcessingProperties processing;
+    private final InFlightBytesLimiter uploadLimiter;
 
-    public MediaStorageService(S3Client s3Client, S3Properties properties, ObjectMapper objectMapper) {
+    public MediaStorageService(
+            S3AsyncClient s3Client,
+            S3Properties properties,
+            ObjectMapper objectMapper,
+            ImageVariantRenderer imageVariantRenderer,
+            MediaObjectRepository mediaObjectRepository,
+            MediaDeduplicationProperties deduplication,
+            MediaProcessingProperties processing
+    ) {
         this.s3Client = s3Client;
         this.properties = properties;
         this.objectMapper = objectMapper;
+        this.imageVariantRenderer = imageVariantRenderer;
+        this.mediaObjectRepository = mediaObjectRepository;
+        this.deduplication = deduplication;
+        this.processing = processing;
+        this.uploadLimiter = new InFlightBytesLimiter(properties.getMaxInFlightBytes().toBytes());
     }
 
+    /**
+     * Validates every upload, then processes and uploads all of them concurrently; content that is already stored,
+     * or appears twice in the batch, is processed once. If any item fails, the references taken are released, items
+     * stored under per-upload keys are deleted again and the first failure is thrown. Content-addressed items are
+     * left as claimed, unreferenced objects for {@link MediaObjectCollector}.
+     */
     public List<MediaAsset> storeAll(MediaKind kind, String purpose, List<MediaUpload> uploads) {
         Objects.requireNonNull(kind, "Media kind is required");
         if (uploads == null || uploads.isEmpty()) {
             throw new MediaValidationException("At least one file must be provided");
         }
-        if (kind == MediaKind.IMAGE && (uploads.size() < 1 || uploads.size() > 100)) {
-            throw new MediaValidationException("Image uploads must contain between 1 and 100 files");
+        if (kind == MediaKind.IMAGE && uploads.size() > 100) {
+            throw new MediaValidationException("Image uploads must contain at most 100 files");
+        }
+        final List<PendingUpload> pending = new ArrayList<>(uploads.size());
+        try {
+            for (MediaUpload upload : uploads) {
+                pending.add(prepare(kind, purpose, upload));
+            }
+        } catch (RuntimeException ex) {
+            pending.forEach(this::deleteSpoolFile);
+            throw ex;
+        }
+        final List<MediaAsset> existing = new ArrayList<>(pending.size());
+        final Map<String, PendingUpload> toUpload = new LinkedHashMap<>();
+        try {
+            for (PendingUpload item : pending) {
+                final MediaAsset asset = acquireExisting(item);
+                existing.add(asset);
+                if (asset == null && toUpload.putIfAbsent(item.basePath(), item) == null) {
+                    claim(item);
+                }
+            }
+        } catch (RuntimeException ex) {
+            pending.forEach(this::deleteSpoolFile);
+            throw ex;
+        }
+        final Map<String, CompletableFuture<MediaAsset>> uploadsByPath = new HashMap<>();
+        toUpload.forEach((basePath, item) -> uploadsByPath.put(basePath, storeAsync(item)));
+        final List<CompletableFuture<MediaAsset>> futures = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            final PendingUpload item = pending.get(i);
+            if (existing.get(i) != null) {
+                futures.add(CompletableFuture.completedFuture(existing.get(i)));
+            } else {
+                if (toUpload.get(item.basePath()) != item) {
+                    deleteSpoolFile(item);
+                }
+                futures.add(uploadsByPath.get(item.basePath()));
+            }
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException ex) {
+            existing.stream()
+                    .filter(Objects::nonNull)
+                    .forEach(asset -> mediaObjectRepository.release(asset.basePath(), Instant.now()));
+            pending.stream()
+                    .filter(item -> !item.contentAddressed())
+                    .map(item -> uploadsByPath.get(item.basePath()))
+                    .filter(future -> !future.isCompletedExceptionally())
+                    .forEach(future -> deleteQuietly(future.join().manifest()));
+            throw unwrap(ex);
         }
-        final List<MediaAsset> results = new ArrayList<>(uploads.size());
-        for (MediaUpload upload : uploads) {
-            results.add(store(kind, purpose, upload));
+        for (int i = 0; i < pending.size(); i++) {
+            if (existing.get(i) == null) {
+                register(pending.get(i), futures.get(i).join());
+            }
         }
-        return results;
+        return futures.stream().map(CompletableFuture::join).toList();
     }
 
     public MediaAsset store(MediaKind kind, String purpose, MediaUpload upload) {
+        final PendingUpload pending = prepare(kind, purpose, upload);
+        final MediaAsset existing;
+        try {
+            existing = acquireExisting(pending);
+        } catch (RuntimeException ex) {
+            deleteSpoolFile(pending);
+            throw ex;
+        }
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            claim(pending);
+        } catch (RuntimeException ex) {
+            deleteSpoolFile(pending);
+            throw ex;
+        }
+        final MediaAsset asset;
+        try {
+            asset = storeAsync(pending).join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex);
+        }
+        register(pending, asset);
+        return asset;
+    }
+
+    /**
+     * Stores the new upload before releasing the existing one, so re-uploading the same content only moves a
+     * reference.
+     */
+    public MediaAsset replace(MediaManifest existingManifest, MediaKind kind, String purpose, MediaUpload upload) {
+        final MediaAsset asset = store(kind, purpose, upload);
+        if (existingManifest != null) {
+            delete(existingManifest);
+        }
+        return asset;
+    }
+
+    /**
+     * Releases a reference to content-addressed media, leaving the objects to {@link MediaObjectCollector}; media
+     * stored per upload is deleted from S3 right away.
+     */
+    public void delete(MediaManifest manifest) {
+        final String basePath = basePathOf(manifest);
+        if (basePath != null && (mediaObjectRepository.release(basePath, Instant.now()) > 0
+                || mediaObjectRepository.existsByBasePath(basePath))) {
+            return;
+        }
+        try {
+            deleteObjects(manifest).join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    /**
+     * Takes a reference to content that is already stored, in which case the spool file is no longer needed and
+     * nothing is decoded, resized or uploaded.
+     */
+    private MediaAsset acquireExisting(PendingUpload upload) {
+        if (!upload.contentAddressed() || mediaObjectRepository.acquire(upload.contentHash(), Instant.now()) == 0) {
+            return null;
+        }
+        final MediaObject object = mediaObjectRepository.findByContentHash(upload.contentHash())
+                .orElseThrow(() -> new MediaStorageException("Media object disappeared: " + upload.contentHash()));
+        deleteSpoolFile(upload);
+        return new MediaAsset(object.getBasePath(), object.getBasePath() + "manifest.json", object.getManifest());
+    }
+
+    /**
+     * Records every key the upload may write before it starts; see {@link MediaObjectRepository#claim}.
+     */
+    private void claim(PendingUpload upload) {
+        if (!upload.contentAddressed()) {
+            return;
+        }
+        final int claimed = mediaObjectRepository.claim(
+                upload.contentHash(),
+                upload.basePath(),
+                upload.kind().name(),
+                upload.size(),
+                toJson(plannedManifest(upload)),
+                Instant.now());
+        if (claimed == 0) {
+            throw new MediaStorageException("Media object is being deleted, retry the upload: " + upload.contentHash());
+        }
+    }
+
+    private void register(PendingUpload upload, MediaAsset asset) {
+        if (!upload.contentAddressed()) {
+            return;
+        }
+        final int registered = mediaObjectRepository.register(
+                upload.contentHash(),
+                upload.basePath(),
+                upload.kind().name(),
+                upload.size(),
+                toJson(asset.manifest()),
+                Instant.now());
+        if (registered == 0) {
+            throw new MediaStorageException("Media object is being deleted, retry the upload: " + upload.contentHash());
+        }
+    }
+
+    /**
+     * The original and every variant key the upload can write. With lazy variants this is the final manifest;
+     * otherwise variant sizes are only known once rendered and are reported as 0.
+     */
+    private MediaManifest plannedManifest(PendingUpload upload) {
+        final String originalKey = upload.basePath() + "original." + upload.extension();
+        final MediaFileDescriptor original = new MediaFileDescriptor(
+                originalKey, buildPublicUrl(originalKey), upload.mimeType(), upload.size());
+        if (upload.kind() != MediaKind.IMAGE) {
+            return new MediaManifest(original, Map.of());
+        }
+        if (rendersOnDemand(upload)) {
+            return new MediaManifest(original, onDemandVariants(upload));
+        }
+        final Map<MediaVariant, MediaFileDescriptor> variants = new LinkedHashMap<>();
+        for (MediaVariantDefinition definition : IMAGE_VARIANTS) {
+            final String key = variantKey(upload, definition.variant());
+            variants.put(definition.variant(), new MediaFileDescriptor(key, buildPublicUrl(key), upload.mimeType(), 0));
+        }
+        return new MediaManifest(original, variants);
+    }
+
+    private String toJson(MediaManifest manifest) {
+        try {
+            return objectMapper.writeValueAsString(manifest);
+        } catch (JsonProcessingException e) {
+            throw new MediaStorageException("Unable to serialize media manifest", e);
+        }
+    }
+
+    /**
+     * Validates the upload and spools its content to a temporary file, hashing it on the way; the file is deleted once
+     * the item is stored or has failed. Images whose variants are rendered later have their header checked here, so
+     * content that cannot be decoded is still rejected on upload.
+     */
+    private PendingUpload prepare(MediaKind kind, String purpose, MediaUpload upload) {
         Objects.requireNonNull(kind, "Media kind is required");
         Objects.requireNonNull(upload, "Upload payload is required");
         validatePurpose(purpose);
-        final byte[] content = upload.content();
-        if (content == null || content.length == 0) {
+        if (upload.content() == null || upload.size() == 0) {
             throw new MediaValidationException("File content cannot be empty");
         }
         final String mimeType = normalizeMime(upload.contentType());
         kind.validate(mimeType, upload.size());
         final String extension = kind.resolveExtension(upload.originalFilename(), mimeType);
+        final Path file;
+        try {
+            file = Files.createTempFile("media-", ".upload");
+        } catch (IOException e) {
+            throw new MediaStorageException("Failed to create temporary upload file", e);
+        }
+        try {
+            final MessageDigest digest = sha256();
+            final long size = spool(upload, digest, file, kind.getMaxSize());
+            if (size == 0) {
+                throw new MediaValidationException("File content cannot be empty");
+            }
+            final String contentHash = HexFormat.of().formatHex(digest.digest());
+            final boolean contentAddressed = deduplication.isEnabled();
+            if (rendersOnDemand(kind, contentAddressed)) {
+                ImageVariantRenderer.verify(file);
+            }
+            final String basePath = contentAddressed
+                    ? buildContentAddressedPath(kind, contentHash)
+                    : buildBasePath(kind, purpose, contentHash.substring(0, 12), LocalDate.now());
+            return new PendingUpload(kind, mimeType, extension, basePath, contentHash, contentAddressed, file, size);
+        } catch (RuntimeException ex) {
+            deleteSpoolFile(file);
+            throw ex;
+        }
+    }
 
-        final LocalDate now = LocalDate.now();
-        final String basePath = buildBasePath(kind, purpose, content, now);
-        final String originalKey = basePath + "original." + extension;
+    private static long spool(MediaUpload upload, MessageDigest digest, Path file, long maxSize) {
+        try (InputStream input = new DigestInputStream(upload.content().getInputStream(), digest);
+             OutputStream output = Files.newOutputStream(file)) {
+            final byte[] buffer = new byte[SPOOL_BUFFER_SIZE];
+            long total = 0;
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                total += read;
+                if (total > maxSize) {
+                    throw new MediaValidationException("File size exceeds the limit of " + maxSize + " bytes");
+                }
+                output.write(buffer, 0, read);
+            }
+            return total;
+        } catch (IOException e) {
+            throw new MediaStorageException("Failed to read uploaded file", e);
+        }
+    }
+
+    /**
+     * Uploads the original while the variants are rendered, and each variant as soon as it is encoded; the manifest
+     * is written last. With lazy variants the manifest is known up front and written alongside the original. A failed
+     * item removes whatever it had already uploaded, unless its keys are content-addressed: a concurrent upload of the
+     * same content may be using them, so they are left to {@link MediaObjectCollector} through the claimed row.
+     */
+    private CompletableFuture<MediaAsset> storeAsync(PendingUpload upload) {
+        final String originalKey = upload.basePath() + "original." + upload.extension();
+        final String manifestKey = upload.basePath() + "manifest.json";
+        final CompletableFuture<MediaFileDescriptor> original = putFile(originalKey, upload.mimeType(), upload.file(), upload.size());
+        final CompletableFuture<MediaManifest> stored;
+        if (rendersOnDemand(upload)) {
+            final MediaManifest manifest = plannedManifest(upload);
+            stored = CompletableFuture.allOf(original, writeManifest(manifestKey, manifest))
+                    .thenApply(ignored -> manifest);
+        } else {
+            final CompletableFuture<Map<MediaVariant, MediaFileDescriptor>> variants = upload.kind() == MediaKind.IMAGE
+                    ? imageVariantRenderer.render(upload.file(), upload.extension(), IMAGE_VARIANTS)
+                    .thenCompose(rendered -> uploadVariants(upload, rendered))
+                    : CompletableFuture.completedFuture(Map.of());
+            stored = CompletableFuture.allOf(original, variants)
+                    .thenApply(ignored -> new MediaManifest(original.join(), variants.join()))
+                    .thenCompose(manifest -> writeManifest(manifestKey, manifest).thenApply(ignored -> manifest));
+        }
+        return stored
+                .thenApply(manifest -> new MediaAsset(upload.basePath(), manifestKey, manifest))
+                .whenComplete((asset, failure) -> {
+                    deleteSpoolFile(upload);
+                    if (failure != null && !upload.contentAddressed()) {
+                        discardPartialUpload(upload, originalKey, manifestKey);
+                    }
+                });
+    }
+
+    private boolean rendersOnDemand(PendingUpload upload) {
+        return rendersOnDemand(upload.kind(), upload.contentAddressed());
+    }
 
-        putObject(originalKey, mimeType, content);
-        final MediaFileDescriptor originalDescriptor = new MediaFileDescriptor(
-                originalKey,
-                buildPublicUrl(originalKey),
-                mimeType,
-                content.length
-        );
+    private boolean rendersOnDemand(MediaKind kind, boolean contentAddressed) {
+        return kind == MediaKind.IMAGE && contentAddressed && processing.isLazyVariants();
+    }
 
+    /**
+     * Variants that are rendered by {@link MediaVariantService} on their first request; the size is unknown until
+     * then and reported as 0.
+     */
+    private Map<MediaVariant, MediaFileDescriptor> onDemandVariants(PendingUpload upload) {
+        final String baseUrl = processing.getVariantBaseUrl().replaceAll("/$", "");
         final Map<MediaVariant, MediaFileDescriptor> variants = new LinkedHashMap<>();
-        if (kind == MediaKind.IMAGE) {
-            variants.putAll(processImageVariants(basePath, extension, mimeType, content));
+        for (MediaVariantDefinition definition : IMAGE_VARIANTS) {
+            final String name = definition.variant().name().toLowerCase(Locale.ROOT);
+            variants.put(definition.variant(), new MediaFileDescriptor(
+                    variantKey(upload, definition.variant()),
+                    baseUrl + "/" + upload.contentHash() + "/" + name,
+                    upload.mimeType(),
+                    0));
         }
+        return variants;
+    }
 
-        final MediaManifest manifest = new MediaManifest(originalDescriptor, variants);
-        final String manifestKey = basePath + "manifest.json";
-        writeManifest(manifestKey, manifest);
-
-        return new MediaAsset(basePath, manifestKey, manifest);
+    private CompletableFuture<Map<MediaVariant, MediaFileDescriptor>> uploadVariants(
+            PendingUpload upload,
+            Map<MediaVariant, byte[]> rendered
+    ) {
+        final Map<MediaVariant, CompletableFuture<MediaFileDescriptor>> uploads = new LinkedHashMap<>();
+        rendered.forEach((variant, bytes) -> uploads.put(variant, putObject(variantKey(upload, variant), upload.mimeType(), bytes)));
+        return CompletableFuture.allOf(uploads.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    final Map<MediaVariant, MediaFileDescriptor> descriptors = new LinkedHashMap<>();
+                    uploads.forEach((variant, future) -> descriptors.put(variant, future.join()));
+                    return descriptors;
+                });
     }
 
-    public MediaAsset replace(MediaManifest existingManifest, MediaKind kind, String purpose, MediaUpload upload) {
-        final MediaAsset asset = store(kind, purpose, upload);
-        if (existingManifest != null) {
-            delete(existingManifest);
+    private CompletableFuture<Void> writeManifest(String manifestKey, MediaManifest manifest) {
+        final byte[] manifestBytes;
+        try {
+            manifestBytes = objectMapper.writeValueAsBytes(manifest);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new MediaStorageException("Unable to serialize media manifest", e));
         }
-        return asset;
+        return putObject(manifestKey, "application/json", manifestBytes).thenApply(ignored -> null);
     }
 
-    public void delete(MediaManifest manifest) {
+    /**
+     * Streams the file from disk once it fits in {@code max-in-flight-bytes}; above {@code multipart-threshold} the
+     * client uploads it as parallel multipart parts.
+     */
+    private CompletableFuture<MediaFileDescriptor> putFile(String key, String contentType, Path file, long size) {
+        return put(key, contentType, size, () -> AsyncRequestBody.fromFile(file));
+    }
+
+    /**
+     * Starts the upload once it fits in {@code max-in-flight-bytes}.
+     */
+    CompletableFuture<MediaFileDescriptor> putObject(String key, String contentType, byte[] content) {
+        return put(key, contentType, content.length, () -> AsyncRequestBody.fromBytesUnsafe(content));
+    }
+
+    /**
+     * Originals, variants and manifests share one byte budget, so a batch of large originals cannot exceed it while
+     * variants wait; an object larger than the whole budget is uploaded alone.
+     */
+    private CompletableFuture<MediaFileDescriptor> put(
+            String key,
+            String contentType,
+            long size,
+            Supplier<AsyncRequestBody> body
+    ) {
+        final PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(properties.getBucket())
+                .key(key)
+                .contentType(contentType)
+                .contentLength(size)
+                .build();
+        return uploadLimiter.acquire(size)
+                .thenCompose(permits -> {
+                    try {
+                        return s3Client.putObject(request, body.get())
+                                .whenComplete((response, failure) -> uploadLimiter.release(permits));
+                    } catch (RuntimeException ex) {
+                        uploadLimiter.release(permits);
+                        throw ex;
+                    }
+                })
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        throw new MediaStorageException("Failed to upload object to S3", unwrapCause(failure));
+                    }
+                    return new MediaFileDescriptor(key, buildPublicUrl(key), contentType, size);
+                });
+    }
+
+    /**
+     * Completes with {@code null} when the object does not exist.
+     */
+    CompletableFuture<byte[]> getObject(String key) {
+        final GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(properties.getBucket())
+                .key(key)
+                .build();
+        return s3Client.getObject(request, AsyncResponseTransformer.toBytes()).handle((response, failure) -> {
+            if (failure == null) {
+                return response.asByteArrayUnsafe();
+            }
+            final Throwable cause = unwrapCause(failure);
+            if (cause instanceof NoSuchKeyException) {
+                return null;
+            }
+            throw new MediaStorageException("Failed to download S3 object: " + key, cause);
+        });
+    }
+
+    CompletableFuture<Void> downloadObject(String key, Path file) {
+        final GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(properties.getBucket())
+                .key(key)
+                .build();
+        return s3Client.getObject(request, AsyncResponseTransformer.toFile(file,
+                        FileTransformerConfiguration.defaultCreateOrReplaceExisting()))
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        throw new MediaStorageException("Failed to download S3 object: " + key, unwrapCause(failure));
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Deletes every object of the manifest from S3, whether or not it is still referenced.
+     */
+    CompletableFuture<Void> deleteObjects(MediaManifest manifest) {
+        return deleteKeys(keysOf(manifest));
+    }
+
+    /**
+     * The original, manifest and variant keys of a stored manifest.
+     */
+    List<String> keysOf(MediaManifest manifest) {
         if (manifest == null) {
-            return;
+            return List.of();
         }
-        String basePath = null;
+        final List<String> keys = new ArrayList<>();
         if (manifest.original() != null) {
-            deleteKey(manifest.original().key());
-            final String originalKey = manifest.original().key();
-            final int lastSlash = originalKey.lastIndexOf('/');
-            if (lastSlash > -1) {
-                basePath = originalKey.substring(0, lastSlash + 1);
-            }
+            keys.add(manifest.original().key());
+        }
+        final String basePath = basePathOf(manifest);
+        if (basePath != null) {
+            keys.add(basePath + "manifest.json");
         }
         if (manifest.variants() != null) {
-            manifest.variants().values().forEach(descriptor -> deleteKey(descriptor.key()));
+            manifest.variants().values().forEach(descriptor -> keys.add(descriptor.key()));
         }
-        if (basePath != null) {
-            deleteKey(basePath + "manifest.json");
+        return keys;
+    }
+
+    /**
+     * Deletes the keys with one {@code DeleteObjects} request per {@value #DELETE_BATCH_SIZE} keys. Missing keys are
+     * not an error.
+     */
+    CompletableFuture<Void> deleteKeys(List<String> keys) {
+        final List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+            requests.add(deleteBatch(keys.subList(from, Math.min(from + DELETE_BATCH_SIZE, keys.size()))));
         }
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new));
     }
 
-    private Map<MediaVariant, MediaFileDescriptor> processImageVariants(String basePath, String extension, String mimeType, byte[] content) {
-        final Map<MediaVariant, MediaFileDescriptor> descriptors = new LinkedHashMap<>();
-        final BufferedImage originalImage;
-        try {
-            originalImage = ImageIO.read(new ByteArrayInputStream(content));
-            if (originalImage == null) {
-                throw new MediaValidationException("Unable to read image content");
+    private CompletableFuture<Void> deleteBatch(List<String> keys) {
+        final DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                .bucket(properties.getBucket())
+                .delete(Delete.builder()
+                        .objects(keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                        .quiet(true)
+                        .build())
+                .build();
+        return s3Client.deleteObjects(request).handle((response, failure) -> {
+            if (failure != null) {
+                throw new MediaStorageException("Failed to delete " + keys.size() + " S3 objects", unwrapCause(failure));
             }
-        } catch (IOException e) {
-            throw new MediaValidationException("Failed to read image content");
-        }
-        for (MediaVariantDefinition definition : IMAGE_VARIANTS) {
-            final MediaVariant variant = definition.variant();
-            final String key = basePath + "variants/" + variant.name().toLowerCase(Locale.ROOT) + "." + extension;
-            final byte[] variantBytes = resizeImage(originalImage, definition, extension);
-            putObject(key, mimeType, variantBytes);
-            descriptors.put(variant, new MediaFileDescriptor(
-                    key,
-                    buildPublicUrl(key),
-                    mimeType,
-                    variantBytes.length
-            ));
-        }
-        return descriptors;
-    }
-
-    private byte[] resizeImage(BufferedImage originalImage, MediaVariantDefinition definition, String extension) {
-        final int targetWidth = definition.maxWidth();
-        final int targetHeight = definition.maxHeight();
-        final BufferedImage sourceImage = normalizeImageForExtension(originalImage, extension);
-        if (sourceImage.getWidth() <= targetWidth && sourceImage.getHeight() <= targetHeight) {
-            try {
-                final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                ImageIO.write(sourceImage, extension, stream);
-                return stream.toByteArray();
-            } catch (IOException e) {
-                throw new MediaStorageException("Failed to buffer original image", e);
+            if (response.hasErrors() && !response.errors().isEmpty()) {
+                final S3Error error = response.errors().get(0);
+                throw new MediaStorageException("Failed to delete S3 object: " + error.key() + " (" + error.code()
+                        + ", " + response.errors().size() + " failed)");
+            }
+            return null;
+        });
+    }
+
+    private CompletableFuture<Void> deleteKey(String key) {
+        final DeleteObjectRequest request = DeleteObjectRequest.builder()
+                .bucket(properties.getBucket())
+                .key(key)
+                .build();
+        return s3Client.deleteObject(request).handle((response, failure) -> {
+            if (failure == null) {
+                return null;
             }
+            final Throwable cause = unwrapCause(failure);
+            if (cause instanceof NoSuchKeyException) {
+                log.warn("Attempted to delete missing S3 object: {}", key);
+                return null;
+            }
+            throw new MediaStorageException("Failed to delete S3 object: " + key, cause);
+        });
+    }
+
+    private void deleteQuietly(MediaManifest manifest) {
+        deleteObjects(manifest).exceptionally(failure -> {
+            log.warn("Failed to clean up media after a failed batch upload", failure);
+            return null;
+        });
+    }
+
+    private void discardPartialUpload(PendingUpload upload, String originalKey, String manifestKey) {
+        final List<String> keys = new ArrayList<>(List.of(originalKey, manifestKey));
+        if (upload.kind() == MediaKind.IMAGE) {
+            IMAGE_VARIANTS.forEach(definition -> keys.add(variantKey(upload, definition.variant())));
         }
+        keys.forEach(key -> deleteKey(key).exceptionally(failure -> {
+            log.warn("Failed to clean up S3 object after a failed upload: {}", key, failure);
+            return null;
+        }));
+    }
+
+    private void deleteSpoolFile(PendingUpload upload) {
+        deleteSpoolFile(upload.file());
+    }
+
+    private void deleteSpoolFile(Path file) {
         try {
-            final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            Thumbnails.of(sourceImage)
-                    .size(targetWidth, targetHeight)
-                    .outputFormat(extension)
-                    .outputQuality(definition.quality())
-                    .keepAspectRatio(true)
-                    .toOutputStream(stream);
-            return stream.toByteArray();
+            Files.deleteIfExists(file);
         } catch (IOException e) {
-            throw new MediaStorageException("Failed to create image variant", e);
+            log.warn("Failed to delete temporary upload file: {}", file, e);
         }
     }
 
-    private void writeManifest(String manifestKey, MediaManifest manifest) {
-        try {
-            final byte[] manifestBytes = objectMapper.writeValueAsBytes(manifest);
-            putObject(manifestKey, "application/json", manifestBytes);
-        } catch (JsonProcessingException e) {
-            throw new MediaStorageException("Unable to serialize media manifest", e);
+    private static String variantKey(PendingUpload upload, MediaVariant variant) {
+        return upload.basePath() + "variants/" + variant.name().toLowerCase(Locale.ROOT) + "." + upload.extension();
+    }
+
+    private static String basePathOf(MediaManifest manifest) {
+        if (manifest == null || manifest.original() == null) {
+            return null;
         }
+        final String originalKey = manifest.original().key();
+        final int lastSlash = originalKey.lastIndexOf('/');
+        return lastSlash > -1 ? originalKey.substring(0, lastSlash + 1) : null;
     }
 
-    private void putObject(String key, String contentType, byte[] content) {
-        try {
-            final PutObjectRequest request = PutObjectRequest.builder()
-                    .bucket(properties.getBucket())
-                    .key(key)
-                    .contentType(contentType)
-                    .contentLength((long) content.length)
-                    .build();
-            s3Client.putObject(request, RequestBody.fromBytes(content));
-        } catch (S3Exception ex) {
-            throw new MediaStorageException("Failed to upload object to S3", ex);
+    private static RuntimeException unwrap(CompletionException ex) {
+        final Throwable cause = unwrapCause(ex);
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
         }
+        return new MediaStorageException("Media storage failed", cause);
     }
 
-    private void deleteKey(String key) {
-        try {
-            final DeleteObjectRequest request = DeleteObjectRequest.builder()
-                    .bucket(properties.getBucket())
-                    .key(key)
-                    .build();
-            s3Client.deleteObject(request);
-        } catch (NoSuchKeyException ex) {
-            log.warn("Attempted to delete missing S3 object: {}", key);
-        } catch (S3Exception ex) {
-            throw new MediaStorageException("Failed to delete S3 object: " + key, ex);
+    private static Throwable unwrapCause(Throwable failure) {
+        Throwable cause = failure;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause;
     }
 
-    private String buildBasePath(MediaKind kind, String purpose, byte[] content, LocalDate now) {
+    private String buildBasePath(MediaKind kind, String purpose, String sha12, LocalDate now) {
         final String sanitizedPurpose = sanitizePurpose(purpose);
         return "media/" + kind.name().toLowerCase(Locale.ROOT) + "/" + sanitizedPurpose + "/"
                 + YEAR_FORMATTER.format(now) + "/" + MONTH_FORMATTER.format(now) + "/" + DAY_FORMATTER.format(now) + "/"
-                + computeSha12(content) + "-" + UUID.randomUUID() + "/";
+                + sha12 + "-" + UUID.randomUUID() + "/";
+    }
+
+    /**
+     * The same content always maps to the same keys, whatever purpose or day it is uploaded for.
+     */
+    private static String buildContentAddressedPath(MediaKind kind, String contentHash) {
+        return "media/" + kind.name().toLowerCase(Locale.ROOT) + "/sha256/" + contentHash.substring(0, 2) + "/"
+                + contentHash + "/";
     }
 
-    private String computeSha12(byte[] content) {
+    private static MessageDigest sha256() {
         try {
-            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            final byte[] hash = digest.digest(content);
-            return HexFormat.of().formatHex(hash).substring(0, 12);
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalStateException("SHA-256 algorithm not available", e);
         }
@@ -279,19 +723,15 @@ public class MediaStorageService {
         return mimeType == null ? null : mimeType.toLowerCase(Locale.ROOT);
     }
 
-    private BufferedImage normalizeImageForExtension(BufferedImage image, String extension) {
-        if (!"jpg".equalsIgnoreCase(extension) && !"jpeg".equalsIgnoreCase(extension)) {
-            return image;
-        }
-        final BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
-        final Graphics2D graphics = converted.createGraphics();
-        try {
-            graphics.setColor(Color.WHITE);
-            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
-            graphics.drawImage(image, 0, 0, null);
-        } finally {
-            graphics.dispose();
-        }
-        return converted;
+    private record PendingUpload(
+            MediaKind kind,
+            String mimeType,
+            String extension,
+            String basePath,
+            String contentHash,
+            boolean contentAddressed,
+            Path file,
+            long size
+    ) {
     }
 }
@@ -0,0 +1,221 @@
+package com.autumnus.spring_boot_starter_template.common.storage.service;
+
+import com.autumnus.spring_boot_starter_template.common.exception.ResourceNotFoundException;
+import com.autumnus.spring_boot_starter_template.common.storage.config.MediaProcessingProperties;
+import com.autumnus.spring_boot_starter_template.common.storage.dto.MediaVariantContent;
+import com.autumnus.spring_boot_starter_template.common.storage.entity.MediaObject;
+import com.autumnus.spring_boot_starter_template.common.storage.entity.MediaObjectState;
+import com.autumnus.spring_boot_starter_template.common.storage.exception.MediaStorageException;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaFileDescriptor;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaKind;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaVariant;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaVariantDefinition;
+import com.autumnus.spring_boot_starter_template.common.storage.repository.MediaObjectRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Serves image variants, rendering each one on its first request and storing it back to S3 under the key listed in
+ * the manifest. Rendered variants are kept in a size-bounded in-memory cache; concurrent requests for a variant that
+ * is not cached share a single load, so it is looked up, fetched or rendered once. Rendered variants expire after
+ * {@code variant-max-age} and are dropped when {@link MediaObjectCollector} deletes their object. Unknown assets and
+ * variants that fail to render are cached as failures for {@code variant-failure-ttl}, so repeated requests for them
+ * do not reach the database or S3. Cache usage is exported as {@code cache.*} metrics tagged {@code cache=mediaVariants}.
+ */
+@Service
+public class MediaVariantService {
+
+    static final String CACHE_NAME = "mediaVariants";
+
+    private static final Logger log = LoggerFactory.getLogger(MediaVariantService.class);
+    private static final int FAILURE_WEIGHT = 1024;
+
+    private final MediaObjectRepository mediaObjectRepository;
+    private final MediaStorageService mediaStorageService;
+    private final ImageVariantRenderer imageVariantRenderer;
+    private final AsyncCache<VariantKey, VariantResult> cache;
+
+    public MediaVariantService(
+            MediaObjectRepository mediaObjectRepository,
+            MediaStorageService mediaStorageService,
+            ImageVariantRenderer imageVariantRenderer,
+            MediaProcessingProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.mediaObjectRepository = mediaObjectRepository;
+        this.mediaStorageService = mediaStorageService;
+        this.imageVariantRenderer = imageVariantRenderer;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getVariantCacheSize().toBytes())
+                .weigher((VariantKey key, VariantResult value) -> value.failure() != null
+                        ? FAILURE_WEIGHT
+                        : value.content().content().length)
+                .expireAfter(new VariantExpiry(
+                        properties.getVariantMaxAge().toNanos(),
+                        properties.getVariantFailureTtl().toNanos()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the asset is unknown or not an image
+     */
+    public MediaVariantContent getVariant(String contentHash, MediaVariant variant) {
+        final VariantResult result;
+        try {
+            result = cache.get(new VariantKey(contentHash, variant), this::load).join();
+        } catch (CompletionException ex) {
+            throw toRuntimeException(ex);
+        }
+        if (result.failure() != null) {
+            throw result.failure();
+        }
+        return result.content();
+    }
+
+    /**
+     * Drops every cached variant of the content, once it is no longer served.
+     */
+    public void invalidate(String contentHash) {
+        for (MediaVariant variant : MediaVariant.values()) {
+            cache.synchronous().invalidate(new VariantKey(contentHash, variant));
+        }
+    }
+
+    /**
+     * Completes normally in every case, so that failures are cached like results.
+     */
+    private CompletableFuture<VariantResult> load(VariantKey key, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> findImage(key.contentHash()), executor)
+                .thenCompose(object -> {
+                    final MediaFileDescriptor descriptor = object.getManifest().variants() != null
+                            ? object.getManifest().variants().get(key.variant())
+                            : null;
+                    if (descriptor == null) {
+                        throw new ResourceNotFoundException("Media variant not found");
+                    }
+                    return mediaStorageService.getObject(descriptor.key()).thenCompose(stored -> stored != null
+                            ? CompletableFuture.completedFuture(new MediaVariantContent(descriptor.contentType(), stored))
+                            : render(object, key.variant(), descriptor));
+                })
+                .handle((content, failure) -> {
+                    if (failure == null) {
+                        return new VariantResult(content, null);
+                    }
+                    final RuntimeException cause = toRuntimeException(failure);
+                    if (!(cause instanceof ResourceNotFoundException)) {
+                        log.warn("Failed to load {} variant of media {}", key.variant(), key.contentHash(), cause);
+                    }
+                    return new VariantResult(null, cause);
+                });
+    }
+
+    /**
+     * Only stored images that are still referenced are served: a pending upload has no original yet, and released or
+     * collected content must not be rendered back into S3.
+     */
+    private MediaObject findImage(String contentHash) {
+        return mediaObjectRepository.findByContentHash(contentHash)
+                .filter(candidate -> candidate.getKind() == MediaKind.IMAGE
+                        && candidate.getState() == MediaObjectState.STORED
+                        && candidate.getReferenceCount() > 0)
+                .orElseThrow(() -> new ResourceNotFoundException("Media asset not found"));
+    }
+
+    /**
+     * Downloads the original to a temporary file, renders just this variant from it and uploads the result.
+     */
+    private CompletableFuture<MediaVariantContent> render(
+            MediaObject object,
+            MediaVariant variant,
+            MediaFileDescriptor descriptor
+    ) {
+        final MediaVariantDefinition definition = MediaStorageService.IMAGE_VARIANTS.stream()
+                .filter(candidate -> candidate.variant() == variant)
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Media variant not found"));
+        final String originalKey = object.getManifest().original().key();
+        final String extension = originalKey.substring(originalKey.lastIndexOf('.') + 1);
+        final Path file;
+        try {
+            file = Files.createTempFile("media-", ".original");
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new MediaStorageException("Failed to create temporary file", e));
+        }
+        return mediaStorageService.downloadObject(originalKey, file)
+                .thenCompose(ignored -> imageVariantRenderer.render(file, extension, List.of(definition)))
+                .thenCompose(rendered -> {
+                    final byte[] bytes = rendered.get(variant);
+                    return mediaStorageService.putObject(descriptor.key(), descriptor.contentType(), bytes)
+                            .thenApply(uploaded -> new MediaVariantContent(descriptor.contentType(), bytes));
+                })
+                .whenComplete((content, failure) -> {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        log.warn("Failed to delete temporary file: {}", file, e);
+                    }
+                });
+    }
+
+    private static RuntimeException toRuntimeException(Throwable failure) {
+        Throwable cause = failure;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new MediaStorageException("Failed to load media variant", cause);
+    }
+
+    private record VariantKey(String contentHash, MediaVariant variant) {
+    }
+
+    private record VariantResult(MediaVariantContent content, RuntimeException failure) {
+    }
+
+    /**
+     * Rendered variants expire after the variant max-age, failures after the failure TTL.
+     */
+    private static final class VariantExpiry implements Expiry<VariantKey, VariantResult> {
+
+        private final long maxAgeNanos;
+        private final long failureTtlNanos;
+
+        private VariantExpiry(long maxAgeNanos, long failureTtlNanos) {
+            this.maxAgeNanos = maxAgeNanos;
+            this.failureTtlNanos = failureTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(VariantKey key, VariantResult value, long currentTime) {
+            return value.failure() != null ? failureTtlNanos : maxAgeNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(VariantKey key, VariantResult value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(VariantKey key, VariantResult value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.autumnus.spring_boot_starter_template.modules.auth.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+
+@Tag(name = "Authentication", description = "Authentication and authorization endpoints")
+public interface JwksApi {
+
+    @Operation(summary = "JSON Web Key Set", description = "Public keys for verifying access tokens (RFC 7517)")
+    @GetMapping(value = "/.well-known/jwks.json", produces = "application/json")
+    ResponseEntity<String> jwks();
+}
@@ -0,0 +1,29 @@
+package com.autumnus.spring_boot_starter_template.modules.auth.controller;
+
+import com.autumnus.spring_boot_starter_template.common.security.JwtKeyRing;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Serves the key set in the standard JWKS shape rather than the {@code ApiResponse} envelope so off-the-shelf JWT
+ * libraries can consume it directly.
+ */
+@RestController
+public class JwksController implements JwksApi {
+
+    private final JwtKeyRing keyRing;
+
+    public JwksController(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @Override
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(keyRing.getJwksJson());
+    }
+}
@@ -6,6 +6,7 @@ import com.autumnus.spring_boot_starter_template.common.logging.annotation.Audit
 import com.autumnus.spring_boot_starter_template.common.logging.annotation.NoLog;
 import com.autumnus.spring_boot_starter_template.common.logging.context.AuditContextHolder;
 import com.autumnus.spring_boot_starter_template.common.security.JwtTokenProvider;
+import com.autumnus.spring_boot_starter_template.common.security.ParsedToken;
 import com.autumnus.spring_boot_starter_template.common.security.UnauthorizedException;
 import com.autumnus.spring_boot_starter_template.modules.auth.dto.*;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserCreateRequest;
@@ -14,13 +15,12 @@ import com.autumnus.spring_boot_starter_template.modules.users.entity.*;
 import com.autumnus.spring_boot_starter_template.modules.users.repository.EmailVerificationTokenRepository;
 import com.autumnus.spring_boot_starter_template.modules.users.repository.PasswordResetTokenRepository;
 import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserChangedEvent;
 import com.autumnus.spring_boot_starter_template.modules.users.service.UserDetailsServiceImpl;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserPrincipal;
 import com.autumnus.spring_boot_starter_template.modules.users.service.UserService;
 import com.autumnus.spring_boot_starter_template.modules.users.service.UserServiceValidationException;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,7 +35,6 @@ public class AuthServiceImpl implements AuthService {
 
     private final UserService userService;
     private final UserRepository userRepository;
-    private final AuthenticationManager authenticationManager;
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtTokenProvider jwtTokenProvider;
     private final TokenService tokenService;
@@ -43,22 +42,23 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final SecurityProperties securityProperties;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String userNotFoundPasswordHash;
 
     public AuthServiceImpl(
             UserService userService,
             UserRepository userRepository,
-            AuthenticationManager authenticationManager,
             UserDetailsServiceImpl userDetailsService,
             JwtTokenProvider jwtTokenProvider,
             TokenService tokenService,
             EmailVerificationTokenRepository emailVerificationTokenRepository,
             PasswordResetTokenRepository passwordResetTokenRepository,
             SecurityProperties securityProperties,
-            PasswordEncoder passwordEncoder
+            PasswordEncoder passwordEncoder,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.authenticationManager = authenticationManager;
         this.userDetailsService = userDetailsService;
         this.jwtTokenProvider = jwtTokenProvider;
         this.tokenService = tokenService;
@@ -66,6 +66,8 @@ public class AuthServiceImpl implements AuthService {
         this.passwordResetTokenRepository = passwordResetTokenRepository;
         this.securityProperties = securityProperties;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.userNotFoundPasswordHash = passwordEncoder.encode("userNotFoundPassword");
     }
 
     @Override
@@ -81,26 +83,37 @@ public class AuthServiceImpl implements AuthService {
         return response;
     }
 
+    /**
+     * One query loads the user with roles and permissions, the password is checked once, and a successful login
+     * is recorded with a single UPDATE, which also stores a re-hashed password when the stored hash uses a lower
+     * BCrypt cost than the current one. Failed attempts are committed even though the call ends in an exception.
+     */
     @Override
+    @Transactional(noRollbackFor = UnauthorizedException.class)
     @Auditable(entityType = "USER", action = AuditAction.LOGIN, entityIdExpression = "#request.email")
     public TokenResponse login(LoginRequest request) {
-        final User user = userService.findEntityByEmail(request.email())
-                .orElseThrow(() -> new UnauthorizedException("Invalid credentials"));
+        final User user = userRepository.findWithAuthoritiesByEmail(request.email()).orElse(null);
+        if (user == null) {
+            // Same BCrypt cost as a real check, so response time does not reveal whether the email exists.
+            passwordEncoder.matches(request.password(), userNotFoundPasswordHash);
+            throw new UnauthorizedException("Invalid credentials");
+        }
         AuditContextHolder.setEntityId(user.getId().toString());
         userService.checkAccountLocked(user);
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.email(), request.password()));
-        } catch (BadCredentialsException ex) {
+        if (!passwordEncoder.matches(request.password(), user.getPasswordHash())) {
             userService.incrementFailedAttempts(user);
             throw new UnauthorizedException("Invalid credentials");
         }
-        userService.resetFailedAttempts(user);
-        user.setLastLoginAt(Instant.now());
-        userRepository.save(user);
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(request.email());
-        final String accessToken = jwtTokenProvider.generateAccessToken(userDetails);
-        final RefreshToken refreshToken = tokenService.createRefreshToken(user, request.deviceInfo(), request.ipAddress());
+        final String upgradedHash = passwordEncoder.upgradeEncoding(user.getPasswordHash())
+                ? passwordEncoder.encode(request.password())
+                : null;
+        userRepository.recordSuccessfulLogin(user.getId(), Instant.now(), upgradedHash);
+        if (upgradedHash != null) {
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+        }
+        final UserPrincipal principal = userDetailsService.toPrincipal(user);
+        final String accessToken = jwtTokenProvider.generateAccessToken(principal);
+        final RefreshToken refreshToken = tokenService.createRefreshToken(principal, request.deviceInfo(), request.ipAddress());
         return TokenResponse.builder()
                 .accessToken(accessToken)
                 .accessTokenExpiresAt(Instant.now().plus(securityProperties.getAccessTokenTtl()))
@@ -112,18 +125,16 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public TokenResponse refreshToken(RefreshTokenRequest request) {
-        final RefreshToken refreshToken = tokenService.validateRefreshToken(request.refreshToken());
-        final Long userId = jwtTokenProvider.extractUserId(refreshToken.getToken());
-        final User user = userService.findEntityById(userId);
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        final String accessToken = jwtTokenProvider.generateAccessToken(userDetails);
-        tokenService.revokeToken(refreshToken.getToken());
-        final RefreshToken rotated = tokenService.createRefreshToken(user, refreshToken.getDeviceInfo(), refreshToken.getIpAddress());
+        final ParsedToken parsed = tokenService.validateRefreshToken(request.refreshToken());
+        final UserPrincipal principal = userDetailsService.findPrincipalById(parsed.userId())
+                .orElseThrow(() -> new TokenValidationException("REFRESH_TOKEN_INVALID", "Refresh token is invalid"));
+        final String accessToken = jwtTokenProvider.generateAccessToken(principal);
+        final IssuedRefreshToken rotated = tokenService.rotateRefreshToken(request.refreshToken(), principal);
         return TokenResponse.builder()
                 .accessToken(accessToken)
                 .accessTokenExpiresAt(Instant.now().plus(securityProperties.getAccessTokenTtl()))
-                .refreshToken(rotated.getToken())
-                .refreshTokenExpiresAt(rotated.getExpiresAt())
+                .refreshToken(rotated.token())
+                .refreshTokenExpiresAt(rotated.expiresAt())
                 .tokenType("Bearer")
                 .build();
     }
@@ -180,6 +191,7 @@ public class AuthServiceImpl implements AuthService {
         passwordResetTokenRepository.save(token);
         userRepository.save(user);
         tokenService.revokeAllUserTokens(user.getId());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 
     @Override
@@ -193,6 +205,7 @@ public class AuthServiceImpl implements AuthService {
         user.setPasswordChangedAt(Instant.now());
         userRepository.save(user);
         tokenService.revokeAllUserTokens(user.getId());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 
     private void createEmailVerificationToken(User user) {
@@ -0,0 +1,6 @@
+package com.autumnus.spring_boot_starter_template.modules.auth.service;
+
+import java.time.Instant;
+
+public record IssuedRefreshToken(String token, Instant expiresAt) {
+}
@@ -1,17 +1,18 @@
 package com.autumnus.spring_boot_starter_template.modules.auth.service;
 
+import com.autumnus.spring_boot_starter_template.common.security.ParsedToken;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.RefreshToken;
-import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserPrincipal;
 
 public interface TokenService {
 
-    RefreshToken createRefreshToken(User user, String deviceInfo, String ipAddress);
+    RefreshToken createRefreshToken(UserPrincipal principal, String deviceInfo, String ipAddress);
 
-    RefreshToken validateRefreshToken(String token);
+    ParsedToken validateRefreshToken(String token);
+
+    IssuedRefreshToken rotateRefreshToken(String token, UserPrincipal principal);
 
     void revokeToken(String token);
 
     void revokeAllUserTokens(Long userId);
-
-    void cleanExpiredTokens();
 }
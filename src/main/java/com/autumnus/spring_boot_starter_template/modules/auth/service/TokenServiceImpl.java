@@ -1,85 +1,128 @@
 package com.autumnus.spring_boot_starter_template.modules.auth.service;
 
 import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.common.security.JwtAuthenticationCache;
 import com.autumnus.spring_boot_starter_template.common.security.JwtTokenProvider;
+import com.autumnus.spring_boot_starter_template.common.security.ParsedToken;
+import com.autumnus.spring_boot_starter_template.common.security.TokenHash;
+import com.autumnus.spring_boot_starter_template.common.security.TokenRevocationRegistry;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.RefreshToken;
-import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
 import com.autumnus.spring_boot_starter_template.modules.users.repository.RefreshTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserPrincipal;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.List;
 
 @Service
 @Transactional
 public class TokenServiceImpl implements TokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
     private final JwtTokenProvider jwtTokenProvider;
     private final SecurityProperties securityProperties;
+    private final JwtAuthenticationCache authenticationCache;
+    private final TokenRevocationRegistry revocationRegistry;
 
     public TokenServiceImpl(
             RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository,
             JwtTokenProvider jwtTokenProvider,
-            SecurityProperties securityProperties
+            SecurityProperties securityProperties,
+            JwtAuthenticationCache authenticationCache,
+            TokenRevocationRegistry revocationRegistry
     ) {
         this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
         this.jwtTokenProvider = jwtTokenProvider;
         this.securityProperties = securityProperties;
+        this.authenticationCache = authenticationCache;
+        this.revocationRegistry = revocationRegistry;
     }
 
     @Override
-    public RefreshToken createRefreshToken(User user, String deviceInfo, String ipAddress) {
+    public RefreshToken createRefreshToken(UserPrincipal principal, String deviceInfo, String ipAddress) {
         final RefreshToken token = new RefreshToken();
-        token.setUser(user);
-        token.setToken(jwtTokenProvider.generateRefreshToken(user));
+        token.setUser(userRepository.getReferenceById(principal.getUserId()));
+        token.setToken(jwtTokenProvider.generateRefreshToken(principal));
         token.setExpiresAt(Instant.now().plus(securityProperties.getRefreshTokenTtl()));
         token.setDeviceInfo(deviceInfo);
         token.setIpAddress(ipAddress);
         return refreshTokenRepository.save(token);
     }
 
+    /**
+     * Checks signature, expiry and revocation without touching the database unless the revoked-token filter reports
+     * a possible hit. Whether the token is still stored is decided by {@link #rotateRefreshToken}.
+     */
     @Override
     @Transactional(readOnly = true)
-    public RefreshToken validateRefreshToken(String token) {
-        final RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
-                .orElseThrow(() -> new TokenValidationException("REFRESH_TOKEN_NOT_FOUND", "Refresh token not found"));
-        if (refreshToken.isRevoked()) {
-            throw new TokenValidationException("REFRESH_TOKEN_REVOKED", "Refresh token has been revoked");
-        }
-        if (refreshToken.getExpiresAt().isBefore(Instant.now())) {
+    public ParsedToken validateRefreshToken(String token) {
+        final ParsedToken parsed;
+        try {
+            parsed = jwtTokenProvider.parse(token);
+        } catch (ExpiredJwtException ex) {
             throw new TokenValidationException("REFRESH_TOKEN_EXPIRED", "Refresh token has expired");
+        } catch (JwtException | IllegalArgumentException ex) {
+            throw new TokenValidationException("REFRESH_TOKEN_INVALID", "Refresh token is invalid");
         }
-        if (!jwtTokenProvider.validateToken(token)) {
+        if (!parsed.isRefreshToken()) {
             throw new TokenValidationException("REFRESH_TOKEN_INVALID", "Refresh token is invalid");
         }
-        return refreshToken;
+        if (revocationRegistry.isRevoked(parsed.userId(), parsed.issuedAt())) {
+            throw new TokenValidationException("REFRESH_TOKEN_REVOKED", "Refresh token has been revoked");
+        }
+        final byte[] tokenHash = TokenHash.sha256(token);
+        if (revocationRegistry.mightBeRevoked(tokenHash)) {
+            final boolean active = refreshTokenRepository.findByTokenHash(tokenHash)
+                    .filter(refreshToken -> !refreshToken.isRevoked())
+                    .isPresent();
+            if (!active) {
+                throw new TokenValidationException("REFRESH_TOKEN_REVOKED", "Refresh token has been revoked");
+            }
+        }
+        return parsed;
+    }
+
+    @Override
+    public IssuedRefreshToken rotateRefreshToken(String token, UserPrincipal principal) {
+        final Instant now = Instant.now();
+        final byte[] tokenHash = TokenHash.sha256(token);
+        final String next = jwtTokenProvider.generateRefreshToken(principal);
+        final Instant expiresAt = now.plus(securityProperties.getRefreshTokenTtl());
+        if (refreshTokenRepository.rotate(tokenHash, TokenHash.sha256(next), next, expiresAt, now) == 0) {
+            throw rotationFailure(tokenHash);
+        }
+        revocationRegistry.revokeToken(tokenHash);
+        return new IssuedRefreshToken(next, expiresAt);
     }
 
     @Override
     public void revokeToken(String token) {
-        refreshTokenRepository.findByToken(token).ifPresent(refreshToken -> {
-            refreshToken.setRevoked(true);
-            refreshToken.setRevokedAt(Instant.now());
-            refreshTokenRepository.save(refreshToken);
-        });
+        final byte[] tokenHash = TokenHash.sha256(token);
+        if (refreshTokenRepository.revokeByTokenHash(tokenHash, Instant.now()) > 0) {
+            revocationRegistry.revokeToken(tokenHash);
+        }
     }
 
     @Override
     public void revokeAllUserTokens(Long userId) {
-        final List<RefreshToken> tokens = refreshTokenRepository.findByUserIdAndRevokedFalse(userId);
         final Instant now = Instant.now();
-        tokens.forEach(token -> {
-            token.setRevoked(true);
-            token.setRevokedAt(now);
-        });
-        refreshTokenRepository.saveAll(tokens);
+        userRepository.updateTokensValidAfter(userId, now);
+        refreshTokenRepository.revokeAllByUserId(userId, now);
+        authenticationCache.invalidateUser(userId);
+        revocationRegistry.revokeUserTokens(userId, now);
     }
 
-    @Override
-    public void cleanExpiredTokens() {
-        final List<RefreshToken> expired = refreshTokenRepository.findByExpiresAtBefore(Instant.now());
-        refreshTokenRepository.deleteAll(expired);
+    private TokenValidationException rotationFailure(byte[] tokenHash) {
+        return refreshTokenRepository.findByTokenHash(tokenHash)
+                .map(existing -> existing.isRevoked()
+                        ? new TokenValidationException("REFRESH_TOKEN_REVOKED", "Refresh token has been revoked")
+                        : new TokenValidationException("REFRESH_TOKEN_EXPIRED", "Refresh token has expired"))
+                .orElseGet(() -> new TokenValidationException("REFRESH_TOKEN_NOT_FOUND", "Refresh token not found"));
     }
 }
@@ -3,6 +3,7 @@ package com.autumnus.spring_boot_starter_template.modules.users.controller;
 import com.autumnus.spring_boot_starter_template.common.api.ApiResponse;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UpdateProfileRequest;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserCreateRequest;
+import com.autumnus.spring_boot_starter_template.modules.users.dto.UserExportFormat;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserResponse;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserUpdateRequest;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
@@ -23,17 +24,37 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Users", description = "User management endpoints")
 @RequestMapping("/api/v1/users")
 public interface UserApi {
 
-    @Operation(summary = "List users", description = "Get a paginated list of users with optional filters.")
+    @Operation(
+            summary = "List users",
+            description = "Get a paginated list of users with optional filters. With `after`, returns the users whose id "
+                    + "is greater than `after` in id order (start with `after=0` and continue with `nextCursor`), "
+                    + "skipping the offset scan and total count."
+    )
     @GetMapping
     ApiResponse<?> listUsers(
             @Parameter(hidden = true) @PageableDefault Pageable pageable,
             @RequestParam(required = false) RoleName role,
-            @RequestParam(required = false) Boolean active
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Long after
+    );
+
+    @Operation(
+            summary = "Export users",
+            description = "Stream every user matching the optional filters, in id order, as NDJSON (one user object "
+                    + "per line) or CSV. The response is written while the database is read, so its size is not limited "
+                    + "by server memory."
+    )
+    @GetMapping("/export")
+    ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) RoleName role,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "NDJSON") UserExportFormat format
     );
 
     @Operation(summary = "Get current user", description = "Retrieve the authenticated user's profile using the access token.")
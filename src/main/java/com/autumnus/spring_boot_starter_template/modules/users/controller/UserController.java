@@ -4,10 +4,10 @@ import com.autumnus.spring_boot_starter_template.common.api.ApiResponse;
 import com.autumnus.spring_boot_starter_template.common.api.PaginationMeta;
 import com.autumnus.spring_boot_starter_template.common.context.RequestContextHolder;
 import com.autumnus.spring_boot_starter_template.common.idempotency.Idempotent;
-import com.autumnus.spring_boot_starter_template.common.storage.exception.MediaStorageException;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.ProfilePhotoUploadCommand;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UpdateProfileRequest;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserCreateRequest;
+import com.autumnus.spring_boot_starter_template.modules.users.dto.UserExportFormat;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserResponse;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserUpdateRequest;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
@@ -16,15 +16,17 @@ import com.autumnus.spring_boot_starter_template.modules.users.service.UserServi
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-
-import java.io.IOException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -42,18 +44,45 @@ public class UserController implements UserApi {
     public ApiResponse<?> listUsers(
             @PageableDefault Pageable pageable,
             @RequestParam(required = false) RoleName role,
-            @RequestParam(required = false) Boolean active
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Long after
     ) {
+        if (after != null) {
+            final Window<UserResponse> window = userService.listUsersAfter(after, pageable.getPageSize(), role, active);
+            final PaginationMeta meta = PaginationMeta.builder()
+                    .size(pageable.getPageSize())
+                    .hasNext(window.hasNext())
+                    .nextCursor(window.hasNext() ? String.valueOf(window.getContent().get(window.size() - 1).getId()) : null)
+                    .build();
+            return ApiResponse.ok(RequestContextHolder.getContext().getTraceId(), window.getContent(), meta);
+        }
         final Page<UserResponse> result = userService.listUsers(pageable, role, active);
         final PaginationMeta meta = PaginationMeta.builder()
-                .page(result.getNumber())
+                .page((long) result.getNumber())
                 .size(result.getSize())
                 .totalElements(result.getTotalElements())
-                .totalPages(result.getTotalPages())
+                .totalPages((long) result.getTotalPages())
                 .build();
         return ApiResponse.ok(RequestContextHolder.getContext().getTraceId(), result.getContent(), meta);
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) RoleName role,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "NDJSON") UserExportFormat format
+    ) {
+        final ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("users." + format.getFileExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(output -> userService.exportUsers(role, active, format, output));
+    }
+
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
     @Override
@@ -117,17 +146,14 @@ public class UserController implements UserApi {
             @PathVariable Long id,
             @RequestPart("file") MultipartFile file
     ) {
-        try {
-            final ProfilePhotoUploadCommand command = new ProfilePhotoUploadCommand(
-                    file.getOriginalFilename(),
-                    file.getContentType(),
-                    file.getBytes()
-            );
-            final UserResponse response = userService.updateProfilePhoto(id, command);
-            return ApiResponse.ok(RequestContextHolder.getContext().getTraceId(), response);
-        } catch (IOException e) {
-            throw new MediaStorageException("Failed to read uploaded file", e);
-        }
+        final ProfilePhotoUploadCommand command = new ProfilePhotoUploadCommand(
+                file.getOriginalFilename(),
+                file.getContentType(),
+                file.getSize(),
+                file
+        );
+        final UserResponse response = userService.updateProfilePhoto(id, command);
+        return ApiResponse.ok(RequestContextHolder.getContext().getTraceId(), response);
     }
 
     @PostMapping(value = "/me/profile-photo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -137,17 +163,14 @@ public class UserController implements UserApi {
             @AuthenticationPrincipal UserPrincipal principal,
             @RequestPart("file") MultipartFile file
     ) {
-        try {
-            final ProfilePhotoUploadCommand command = new ProfilePhotoUploadCommand(
-                    file.getOriginalFilename(),
-                    file.getContentType(),
-                    file.getBytes()
-            );
-            final UserResponse response = userService.updateProfilePhoto(principal.getUserId(), command);
-            return ApiResponse.ok(RequestContextHolder.getContext().getTraceId(), response);
-        } catch (IOException e) {
-            throw new MediaStorageException("Failed to read uploaded file", e);
-        }
+        final ProfilePhotoUploadCommand command = new ProfilePhotoUploadCommand(
+                file.getOriginalFilename(),
+                file.getContentType(),
+                file.getSize(),
+                file
+        );
+        final UserResponse response = userService.updateProfilePhoto(principal.getUserId(), command);
+        return ApiResponse.ok(RequestContextHolder.getContext().getTraceId(), response);
     }
 
     @DeleteMapping("/{id}/profile-photo")
@@ -1,4 +1,6 @@
 package com.autumnus.spring_boot_starter_template.modules.users.dto;
 
-public record ProfilePhotoUploadCommand(String originalFilename, String contentType, byte[] content) {
+import org.springframework.core.io.InputStreamSource;
+
+public record ProfilePhotoUploadCommand(String originalFilename, String contentType, long size, InputStreamSource content) {
 }
@@ -28,5 +28,9 @@ public class UserResponse extends BaseDto {
     private Instant passwordChangedAt;
     private Integer failedLoginAttempts;
     private Instant lockedUntil;
+    private String profilePhotoUrl;
+    /**
+     * Only set on single-user reads; list pages and exports carry {@link #profilePhotoUrl} alone.
+     */
     private MediaResourceResponse profilePhoto;
 }
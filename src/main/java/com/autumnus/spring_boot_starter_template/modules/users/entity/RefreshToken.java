@@ -1,6 +1,7 @@
 package com.autumnus.spring_boot_starter_template.modules.users.entity;
 
 import com.autumnus.spring_boot_starter_template.common.persistence.BaseEntity;
+import com.autumnus.spring_boot_starter_template.common.security.TokenHash;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,7 +12,7 @@ import java.time.Instant;
 @Table(
         name = "refresh_tokens",
         indexes = {
-                @Index(name = "idx_refresh_token_token", columnList = "token", unique = true),
+                @Index(name = "idx_refresh_token_hash", columnList = "token_hash", unique = true),
                 @Index(name = "idx_refresh_token_expires", columnList = "expires_at")
         }
 )
@@ -23,7 +24,17 @@ public class RefreshToken extends BaseEntity {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(nullable = false, unique = true, length = 512)
+    /**
+     * SHA-256 of the issued JWT, by which tokens are looked up.
+     */
+    @Column(name = "token_hash", length = 32)
+    private byte[] tokenHash;
+
+    /**
+     * The issued JWT, still written only because instances of the previous version look sessions up by it during a
+     * rolling deploy. Goes away together with the column in a later release.
+     */
+    @Column(unique = true, length = 512)
     private String token;
 
     @Column(name = "expires_at", nullable = false)
@@ -40,4 +51,9 @@ public class RefreshToken extends BaseEntity {
 
     @Column(name = "ip_address")
     private String ipAddress;
+
+    public void setToken(String token) {
+        this.token = token;
+        this.tokenHash = TokenHash.sha256(token);
+    }
 }
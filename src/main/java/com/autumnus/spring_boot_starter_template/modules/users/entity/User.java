@@ -1,9 +1,14 @@
 package com.autumnus.spring_boot_starter_template.modules.users.entity;
 
 import com.autumnus.spring_boot_starter_template.common.persistence.BaseEntity;
+import com.autumnus.spring_boot_starter_template.common.storage.dto.MediaResourceResponse;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaManifest;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
 import java.util.HashSet;
@@ -39,6 +44,9 @@ public class User extends BaseEntity {
 
     private Instant passwordChangedAt;
 
+    @Column(name = "tokens_valid_after")
+    private Instant tokensValidAfter;
+
     @Column(nullable = false)
     private Integer failedLoginAttempts = 0;
 
@@ -50,7 +58,39 @@ public class User extends BaseEntity {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<RefreshToken> refreshTokens = new HashSet<>();
 
-    @Lob
-    @Column(name = "profile_photo_manifest")
-    private String profilePhotoManifest;
+    /**
+     * Stored as JSON ({@code jsonb} on PostgreSQL) and mapped straight to {@link MediaManifest}. The legacy
+     * {@code profile_photo_manifest} column is kept in step by {@code ProfilePhotoManifestMigration} until it is dropped.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "profile_photo_manifest_json")
+    private MediaManifest profilePhotoManifest;
+
+    /**
+     * URL of the original photo, kept in step with the manifest so list queries can select it without the manifest.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "profile_photo_url", length = 1024)
+    private String profilePhotoUrl;
+
+    @Transient
+    private MediaResourceResponse profilePhoto;
+
+    public void setProfilePhotoManifest(MediaManifest profilePhotoManifest) {
+        this.profilePhotoManifest = profilePhotoManifest;
+        this.profilePhotoUrl = profilePhotoManifest != null && profilePhotoManifest.original() != null
+                ? profilePhotoManifest.original().url()
+                : null;
+        this.profilePhoto = null;
+    }
+
+    /**
+     * The API view of the manifest, built at most once per loaded entity.
+     */
+    public MediaResourceResponse getProfilePhoto() {
+        if (profilePhoto == null && profilePhotoManifest != null) {
+            profilePhoto = MediaResourceResponse.from(profilePhotoManifest);
+        }
+        return profilePhoto;
+    }
 }
@@ -1,32 +1,25 @@
 package com.autumnus.spring_boot_starter_template.modules.users.mapper;
 
-import com.autumnus.spring_boot_starter_template.common.storage.dto.MediaFileResponse;
 import com.autumnus.spring_boot_starter_template.common.storage.dto.MediaResourceResponse;
-import com.autumnus.spring_boot_starter_template.common.storage.model.MediaFileDescriptor;
-import com.autumnus.spring_boot_starter_template.common.storage.model.MediaManifest;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserResponse;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserUpdateRequest;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
-import com.autumnus.spring_boot_starter_template.modules.users.entity.UserRoleAssignment;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.UserView;
+import com.autumnus.spring_boot_starter_template.modules.users.service.RoleCatalog;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
 public class UserMapper {
 
-    private static final Logger log = LoggerFactory.getLogger(UserMapper.class);
+    private final RoleCatalog roleCatalog;
 
-    private final ObjectMapper objectMapper;
-
-    public UserMapper(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public UserMapper(RoleCatalog roleCatalog) {
+        this.roleCatalog = roleCatalog;
     }
 
     public void updateEntity(UserUpdateRequest request, User user) {
@@ -56,45 +49,49 @@ public class UserMapper {
                 .passwordChangedAt(user.getPasswordChangedAt())
                 .failedLoginAttempts(user.getFailedLoginAttempts())
                 .lockedUntil(user.getLockedUntil())
-                .profilePhoto(mapProfilePhoto(user))
+                .profilePhotoUrl(user.getProfilePhotoUrl())
+                .profilePhoto(user.getProfilePhoto())
+                .build();
+    }
+
+    public UserResponse toResponse(UserView view) {
+        return UserResponse.builder()
+                .id(view.id())
+                .createdAt(view.createdAt())
+                .updatedAt(view.updatedAt())
+                .deletedAt(view.deletedAt())
+                .email(view.email())
+                .username(view.username())
+                .active(view.active())
+                .emailVerified(view.emailVerified())
+                .roles(parseRoleNames(view.roles()))
+                .lastLoginAt(view.lastLoginAt())
+                .passwordChangedAt(view.passwordChangedAt())
+                .failedLoginAttempts(view.failedLoginAttempts())
+                .lockedUntil(view.lockedUntil())
+                .profilePhotoUrl(view.profilePhotoUrl())
+                .profilePhoto(MediaResourceResponse.from(view.profilePhotoManifest()))
                 .build();
     }
 
+    /**
+     * Resolves role names through the {@link RoleCatalog}, so the lazy roles of each assignment are not loaded.
+     */
     public Set<RoleName> extractRoleNames(User user) {
         return user.getRoleAssignments()
                 .stream()
-                .map(UserRoleAssignment::getRole)
-                .map(role -> role.getName())
+                .map(assignment -> roleCatalog.name(assignment.getRole().getId()))
                 .collect(Collectors.toUnmodifiableSet());
     }
 
-    private MediaResourceResponse mapProfilePhoto(User user) {
-        if (user.getProfilePhotoManifest() == null) {
-            return null;
-        }
-        try {
-            final MediaManifest manifest = objectMapper.readValue(user.getProfilePhotoManifest(), MediaManifest.class);
-            final MediaFileResponse original = toResponse(manifest.original());
-            return new MediaResourceResponse(
-                    original,
-                    manifest.variants() == null ? null : manifest.variants().entrySet().stream()
-                            .collect(Collectors.toMap(
-                                    entry -> entry.getKey().name().toLowerCase(),
-                                    entry -> toResponse(entry.getValue()),
-                                    (left, right) -> left,
-                                    java.util.LinkedHashMap::new
-                            ))
-            );
-        } catch (JsonProcessingException e) {
-            log.error("Failed to parse profile photo manifest for user {}", user.getId(), e);
-            throw new IllegalStateException("Profile photo manifest is corrupted", e);
+    private static Set<RoleName> parseRoleNames(String roles) {
+        if (roles == null || roles.isEmpty()) {
+            return Set.of();
         }
-    }
-
-    private MediaFileResponse toResponse(MediaFileDescriptor descriptor) {
-        if (descriptor == null) {
-            return null;
+        final Set<RoleName> names = EnumSet.noneOf(RoleName.class);
+        for (String name : roles.split(",")) {
+            names.add(RoleName.valueOf(name));
         }
-        return new MediaFileResponse(descriptor.url(), descriptor.contentType(), descriptor.size());
+        return Set.copyOf(names);
     }
 }
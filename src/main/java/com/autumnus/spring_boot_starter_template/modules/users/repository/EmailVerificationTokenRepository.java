@@ -2,6 +2,10 @@ package com.autumnus.spring_boot_starter_template.modules.users.repository;
 
 import com.autumnus.spring_boot_starter_template.modules.users.entity.EmailVerificationToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -10,5 +14,11 @@ public interface EmailVerificationTokenRepository extends JpaRepository<EmailVer
 
     Optional<EmailVerificationToken> findByToken(String token);
 
-    void deleteByExpiresAtBefore(Instant expiresAt);
+    @Transactional
+    @Modifying
+    @Query(value = """
+            delete from email_verification_tokens
+            where id in (select id from email_verification_tokens where expires_at < :cutoff limit :limit)
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
@@ -2,16 +2,67 @@ package com.autumnus.spring_boot_starter_template.modules.users.repository;
 
 import com.autumnus.spring_boot_starter_template.modules.users.entity.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
 
-    List<RefreshToken> findByUserIdAndRevokedFalse(Long userId);
+    @Modifying
+    @Query("""
+            update RefreshToken r
+            set r.revoked = true, r.revokedAt = :now, r.updatedAt = :now, r.version = r.version + 1
+            where r.user.id = :userId and r.revoked = false
+            """)
+    int revokeAllByUserId(@Param("userId") Long userId, @Param("now") Instant now);
 
-    List<RefreshToken> findByExpiresAtBefore(Instant expiresAt);
+    /**
+     * Deletes at most {@code limit} tokens that expired before {@code cutoff}, in its own transaction so that purging
+     * a large backlog never holds locks on more than one chunk.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            delete from refresh_tokens
+            where id in (select id from refresh_tokens where expires_at < :cutoff limit :limit)
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    /**
+     * Replaces an active token with its successor in one statement, keeping the session's device and address. The
+     * legacy {@code token} column is replaced too, so the previous token stops working on older instances as well.
+     * Returns 0 when the token is unknown, revoked, expired or was rotated concurrently.
+     */
+    @Modifying
+    @Query("""
+            update RefreshToken r
+            set r.tokenHash = :next, r.token = :nextToken, r.expiresAt = :expiresAt, r.updatedAt = :now,
+                r.version = r.version + 1
+            where r.tokenHash = :tokenHash and r.revoked = false and r.expiresAt > :now
+            """)
+    int rotate(
+            @Param("tokenHash") byte[] tokenHash,
+            @Param("next") byte[] next,
+            @Param("nextToken") String nextToken,
+            @Param("expiresAt") Instant expiresAt,
+            @Param("now") Instant now
+    );
+
+    @Modifying
+    @Query("""
+            update RefreshToken r
+            set r.revoked = true, r.revokedAt = :now, r.updatedAt = :now, r.version = r.version + 1
+            where r.tokenHash = :tokenHash and r.revoked = false
+            """)
+    int revokeByTokenHash(@Param("tokenHash") byte[] tokenHash, @Param("now") Instant now);
+
+    @Query("select r.tokenHash from RefreshToken r where r.revoked = true and r.expiresAt > :now")
+    Stream<byte[]> streamRevokedTokenHashes(@Param("now") Instant now);
 }
@@ -3,10 +3,15 @@ package com.autumnus.spring_boot_starter_template.modules.users.repository;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.Role;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
 
     Optional<Role> findByName(RoleName name);
+
+    @Query("select distinct r from Role r left join fetch r.permissions")
+    List<Role> findAllWithPermissions();
 }
@@ -0,0 +1,9 @@
+package com.autumnus.spring_boot_starter_template.modules.users.repository;
+
+import java.time.Instant;
+
+/**
+ * Tokens of {@code userId} issued before {@code tokensValidAfter} are revoked.
+ */
+public record TokenWatermark(Long userId, Instant tokensValidAfter) {
+}
@@ -1,13 +1,64 @@
 package com.autumnus.spring_boot_starter_template.modules.users.repository;
 
 import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>, UserViewRepository {
 
     Optional<User> findByEmail(String email);
 
     Optional<User> findByUsername(String username);
+
+    /**
+     * Loads the user with its role assignments in a single query, for building a principal; roles and permissions
+     * are resolved through the {@code RoleCatalog}.
+     */
+    @EntityGraph(attributePaths = {"roleAssignments"})
+    @Query("select u from User u where u.email = :email")
+    Optional<User> findWithAuthoritiesByEmail(@Param("email") String email);
+
+    @EntityGraph(attributePaths = {"roleAssignments"})
+    @Query("select u from User u where u.username = :username")
+    Optional<User> findWithAuthoritiesByUsername(@Param("username") String username);
+
+    @EntityGraph(attributePaths = {"roleAssignments"})
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findWithAuthoritiesById(@Param("id") Long id);
+
+    /**
+     * Applies every state change of a successful login in one statement. {@code passwordHash} replaces the stored
+     * hash when the password was re-hashed at the current cost, and is {@code null} otherwise.
+     */
+    @Modifying
+    @Query("""
+            update User u
+            set u.failedLoginAttempts = 0, u.lockedUntil = null, u.lastLoginAt = :now, u.updatedAt = :now,
+                u.passwordHash = coalesce(:passwordHash, u.passwordHash), u.version = u.version + 1
+            where u.id = :userId
+            """)
+    int recordSuccessfulLogin(
+            @Param("userId") Long userId,
+            @Param("now") Instant now,
+            @Param("passwordHash") String passwordHash
+    );
+
+    @Modifying
+    @Query("update User u set u.tokensValidAfter = :validAfter, u.updatedAt = :validAfter, u.version = u.version + 1 where u.id = :userId")
+    int updateTokensValidAfter(@Param("userId") Long userId, @Param("validAfter") Instant validAfter);
+
+    @Query("""
+            select new com.autumnus.spring_boot_starter_template.modules.users.repository.TokenWatermark(
+                u.id, u.tokensValidAfter)
+            from User u
+            where u.tokensValidAfter > :since
+            """)
+    List<TokenWatermark> findTokenWatermarksSince(@Param("since") Instant since);
 }
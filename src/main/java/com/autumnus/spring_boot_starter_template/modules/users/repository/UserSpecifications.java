@@ -2,6 +2,9 @@ package com.autumnus.spring_boot_starter_template.modules.users.repository;
 
 import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.UserRoleAssignment;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
 public final class UserSpecifications {
@@ -9,14 +12,21 @@ public final class UserSpecifications {
     private UserSpecifications() {
     }
 
+    /**
+     * Matches users holding {@code role} through an {@code exists} subquery, so a user is listed (and counted) once.
+     */
     public static Specification<User> withRole(RoleName role) {
         return (root, query, cb) -> {
             if (role == null) {
                 return cb.conjunction();
             }
-            final var assignments = root.join("roleAssignments");
-            final var roleJoin = assignments.join("role");
-            return cb.equal(roleJoin.get("name"), role);
+            final Subquery<Long> assigned = query.subquery(Long.class);
+            final Root<UserRoleAssignment> assignment = assigned.from(UserRoleAssignment.class);
+            assigned.select(assignment.get("user").get("id"))
+                    .where(
+                            cb.equal(assignment.get("user"), root),
+                            cb.equal(assignment.get("role").get("name"), role));
+            return cb.exists(assigned);
         };
     }
 
@@ -0,0 +1,52 @@
+package com.autumnus.spring_boot_starter_template.modules.users.repository;
+
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaManifest;
+
+import java.time.Instant;
+
+/**
+ * Read-only projection of a user for API responses. {@code roles} is the comma-separated list of role names
+ * aggregated in SQL. {@code profilePhotoManifest} is only selected for single-user reads and is {@code null} on list
+ * and export rows, which carry {@code profilePhotoUrl} alone.
+ */
+public record UserView(
+        Long id,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant deletedAt,
+        String email,
+        String username,
+        boolean active,
+        boolean emailVerified,
+        Instant lastLoginAt,
+        Instant passwordChangedAt,
+        Integer failedLoginAttempts,
+        Instant lockedUntil,
+        String roles,
+        String profilePhotoUrl,
+        MediaManifest profilePhotoManifest
+) {
+
+    /**
+     * List and export rows, selected without the manifest.
+     */
+    public UserView(
+            Long id,
+            Instant createdAt,
+            Instant updatedAt,
+            Instant deletedAt,
+            String email,
+            String username,
+            boolean active,
+            boolean emailVerified,
+            Instant lastLoginAt,
+            Instant passwordChangedAt,
+            Integer failedLoginAttempts,
+            Instant lockedUntil,
+            String roles,
+            String profilePhotoUrl
+    ) {
+        this(id, createdAt, updatedAt, deletedAt, email, username, active, emailVerified, lastLoginAt,
+                passwordChangedAt, failedLoginAttempts, lockedUntil, roles, profilePhotoUrl, null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.autumnus.spring_boot_starter_template.modules.users.repository;
+
+import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserView} queries: no entities are loaded, so nothing is dirty-checked.
+ */
+public interface UserViewRepository {
+
+    Optional<UserView> findViewById(Long id);
+
+    Page<UserView> findViews(Specification<User> specification, Pageable pageable);
+
+    /**
+     * Up to {@code limit} users with an id greater than {@code afterId}, in id order, without a count query.
+     */
+    Window<UserView> findViewsAfter(Specification<User> specification, long afterId, int limit);
+
+    /**
+     * All matching users in id order, read through a forward-only cursor fetching {@code fetchSize} rows at a time.
+     * Must be consumed, and closed, inside a transaction.
+     */
+    Stream<UserView> streamViews(Specification<User> specification, int fetchSize);
+}
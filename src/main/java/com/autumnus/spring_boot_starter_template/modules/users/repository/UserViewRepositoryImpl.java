@@ -0,0 +1,145 @@
+package com.autumnus.spring_boot_starter_template.modules.users.repository;
+
+import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.UserRoleAssignment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.criteria.JpaSelection;
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+class UserViewRepositoryImpl implements UserViewRepository {
+
+    private final EntityManager entityManager;
+
+    UserViewRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<UserView> findViewById(Long id) {
+        final HibernateCriteriaBuilder cb = criteriaBuilder();
+        final JpaCriteriaQuery<UserView> query = cb.createQuery(UserView.class);
+        final JpaRoot<User> user = select(cb, query, true);
+        query.where(cb.equal(user.get("id"), id));
+        return entityManager.createQuery(query).getResultStream().findFirst();
+    }
+
+    @Override
+    public Page<UserView> findViews(Specification<User> specification, Pageable pageable) {
+        final HibernateCriteriaBuilder cb = criteriaBuilder();
+        final JpaCriteriaQuery<UserView> query = cb.createQuery(UserView.class);
+        final JpaRoot<User> user = select(cb, query, false);
+        where(specification, user, query, cb);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), user, cb));
+        final var typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(specification));
+    }
+
+    @Override
+    public Window<UserView> findViewsAfter(Specification<User> specification, long afterId, int limit) {
+        final HibernateCriteriaBuilder cb = criteriaBuilder();
+        final JpaCriteriaQuery<UserView> query = cb.createQuery(UserView.class);
+        final JpaRoot<User> user = select(cb, query, false);
+        final Predicate filter = specification.toPredicate(user, query, cb);
+        final Predicate after = cb.greaterThan(user.get("id"), afterId);
+        query.where(filter != null ? cb.and(filter, after) : after);
+        query.orderBy(cb.asc(user.get("id")));
+        final List<UserView> rows = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+        final boolean hasNext = rows.size() > limit;
+        final List<UserView> content = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(content, index -> ScrollPosition.forward(Map.of("id", content.get(index).id())), hasNext);
+    }
+
+    @Override
+    public Stream<UserView> streamViews(Specification<User> specification, int fetchSize) {
+        final HibernateCriteriaBuilder cb = criteriaBuilder();
+        final JpaCriteriaQuery<UserView> query = cb.createQuery(UserView.class);
+        final JpaRoot<User> user = select(cb, query, false);
+        where(specification, user, query, cb);
+        query.orderBy(cb.asc(user.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Selects the {@link UserView} columns, with role names aggregated by a correlated {@code listagg} subquery so a
+     * user stays one row. Without {@code withManifest} the JSON manifest is not selected, so list rows are never
+     * deserialised.
+     */
+    private static JpaRoot<User> select(
+            HibernateCriteriaBuilder cb,
+            JpaCriteriaQuery<UserView> query,
+            boolean withManifest
+    ) {
+        final JpaRoot<User> user = query.from(User.class);
+        final JpaSubQuery<String> roles = query.subquery(String.class);
+        final JpaRoot<UserRoleAssignment> assignment = roles.from(UserRoleAssignment.class);
+        roles.select(cb.listagg(null, assignment.get("role").get("name").as(String.class), ","))
+                .where(cb.equal(assignment.get("user"), user));
+        final List<JpaSelection<?>> columns = new ArrayList<>(List.of(
+                user.get("id"),
+                user.get("createdAt"),
+                user.get("updatedAt"),
+                user.get("deletedAt"),
+                user.get("email"),
+                user.get("username"),
+                user.get("active"),
+                user.get("emailVerified"),
+                user.get("lastLoginAt"),
+                user.get("passwordChangedAt"),
+                user.get("failedLoginAttempts"),
+                user.get("lockedUntil"),
+                roles,
+                user.get("profilePhotoUrl")));
+        if (withManifest) {
+            columns.add(user.get("profilePhotoManifest"));
+        }
+        query.select(cb.construct(UserView.class, columns));
+        return user;
+    }
+
+    private long count(Specification<User> specification) {
+        final HibernateCriteriaBuilder cb = criteriaBuilder();
+        final CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        final Root<User> user = query.from(User.class);
+        query.select(cb.count(user));
+        where(specification, user, query, cb);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void where(Specification<User> specification, Root<User> user, CriteriaQuery<?> query, HibernateCriteriaBuilder cb) {
+        final Predicate predicate = specification.toPredicate(user, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    private HibernateCriteriaBuilder criteriaBuilder() {
+        return entityManager.unwrap(org.hibernate.Session.class).getCriteriaBuilder();
+    }
+}
@@ -0,0 +1,104 @@
+package com.autumnus.spring_boot_starter_template.modules.users.service;
+
+import com.autumnus.spring_boot_starter_template.common.exception.ResourceNotFoundException;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.Role;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.RoleRepository;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of all roles with their permissions, loaded at startup and replaced after a
+ * {@link RolesChangedEvent} commits, on every node when revocations are synced over Redis. Lookups by role id never
+ * initialize a lazy {@link Role}, and {@link #reference} returns an uninitialized proxy, so assigning and reading roles
+ * costs no queries. An unknown role name or id triggers one reload before it is treated as missing.
+ */
+@Component
+public class RoleCatalog {
+
+    private final RoleRepository roleRepository;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    public RoleCatalog(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRolesChanged(RolesChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * A reference to the role for new assignments; must be called inside a transaction.
+     */
+    public Role reference(RoleName name) {
+        Long roleId = snapshot.idsByName().get(name);
+        if (roleId == null) {
+            roleId = reload().idsByName().get(name);
+        }
+        if (roleId == null) {
+            throw new ResourceNotFoundException("Role not found");
+        }
+        return roleRepository.getReferenceById(roleId);
+    }
+
+    public RoleName name(Long roleId) {
+        return entry(roleId).name();
+    }
+
+    /**
+     * The {@code ROLE_} authority and permission authorities granted by a role.
+     */
+    public List<GrantedAuthority> authorities(Long roleId) {
+        return entry(roleId).authorities();
+    }
+
+    private RoleEntry entry(Long roleId) {
+        RoleEntry entry = snapshot.rolesById().get(roleId);
+        if (entry == null) {
+            entry = reload().rolesById().get(roleId);
+        }
+        if (entry == null) {
+            throw new ResourceNotFoundException("Role not found");
+        }
+        return entry;
+    }
+
+    private synchronized Snapshot reload() {
+        final Map<RoleName, Long> idsByName = new EnumMap<>(RoleName.class);
+        final Map<Long, RoleEntry> rolesById = new HashMap<>();
+        for (Role role : roleRepository.findAllWithPermissions()) {
+            final List<GrantedAuthority> authorities = new ArrayList<>();
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName().name()));
+            role.getPermissions().forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission.getName())));
+            idsByName.put(role.getName(), role.getId());
+            rolesById.put(role.getId(), new RoleEntry(role.getName(), List.copyOf(authorities)));
+        }
+        final Snapshot loaded = new Snapshot(Map.copyOf(idsByName), Map.copyOf(rolesById));
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private record RoleEntry(RoleName name, List<GrantedAuthority> authorities) {
+    }
+
+    private record Snapshot(Map<RoleName, Long> idsByName, Map<Long, RoleEntry> rolesById) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.autumnus.spring_boot_starter_template.modules.users.service;
+
+/**
+ * Published when roles or their permissions change, so the {@link RoleCatalog} is reloaded once the change commits.
+ */
+public record RolesChangedEvent() {
+}
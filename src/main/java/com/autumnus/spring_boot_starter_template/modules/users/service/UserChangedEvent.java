@@ -0,0 +1,8 @@
+package com.autumnus.spring_boot_starter_template.modules.users.service;
+
+/**
+ * Published when a user's login names, password, activation or roles change, so cached principals are evicted once
+ * the change commits.
+ */
+public record UserChangedEvent(Long userId) {
+}
@@ -1,40 +1,114 @@
 package com.autumnus.spring_boot_starter_template.modules.users.service;
 
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.UserRoleAssignment;
 import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
+/**
+ * Loads principals by login name (email or username) or id and caches them; see
+ * {@link SecurityProperties.PrincipalCache}. Authorities come from the {@link RoleCatalog}, so only the user row and
+ * its role assignments are read. Entries of a user are evicted when a {@link UserChangedEvent} commits, on other
+ * nodes too when revocations are synced over Redis.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+    static final String CACHE_NAME = "userPrincipals";
+
     private final UserRepository userRepository;
+    private final RoleCatalog roleCatalog;
+    private final boolean enabled;
+    private final Cache<PrincipalKey, UserPrincipal> cache;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(
+            UserRepository userRepository,
+            RoleCatalog roleCatalog,
+            SecurityProperties properties,
+            MeterRegistry meterRegistry
+    ) {
         this.userRepository = userRepository;
+        this.roleCatalog = roleCatalog;
+        final SecurityProperties.PrincipalCache settings = properties.getPrincipalCache();
+        this.enabled = settings.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        final User user = userRepository.findByEmail(username)
-                .or(() -> userRepository.findByUsername(username))
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        final Set<SimpleGrantedAuthority> authorities = user.getRoleAssignments().stream()
-                .map(assignment -> new SimpleGrantedAuthority("ROLE_" + assignment.getRole().getName().name()))
-                .collect(Collectors.toUnmodifiableSet());
+        final UserPrincipal principal = cached(new PrincipalKey(username, null), () -> userRepository
+                .findWithAuthoritiesByEmail(username)
+                .or(() -> userRepository.findWithAuthoritiesByUsername(username)));
+        if (principal == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
+        return principal;
+    }
+
+    public Optional<UserPrincipal> findPrincipalById(Long userId) {
+        return Optional.ofNullable(cached(new PrincipalKey(null, userId), () -> userRepository.findWithAuthoritiesById(userId)));
+    }
+
+    /**
+     * Builds the principal from a user whose role assignments are already loaded (see
+     * {@link UserRepository#findWithAuthoritiesByEmail}); otherwise they are fetched lazily.
+     */
+    public UserPrincipal toPrincipal(User user) {
+        final Set<GrantedAuthority> authorities = new HashSet<>();
+        for (UserRoleAssignment assignment : user.getRoleAssignments()) {
+            authorities.addAll(roleCatalog.authorities(assignment.getRole().getId()));
+        }
         return new UserPrincipal(
                 user.getId(),
                 user.getEmail(),
                 user.getUsername(),
                 user.getPasswordHash(),
-                authorities,
+                Set.copyOf(authorities),
                 user.isActive()
         );
     }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.userId());
+    }
+
+    /**
+     * Drops every cached principal of the user, whichever login name or id it was loaded by.
+     */
+    public void evict(Long userId) {
+        if (userId != null) {
+            cache.asMap().values().removeIf(principal -> userId.equals(principal.getUserId()));
+        }
+    }
+
+    private UserPrincipal cached(PrincipalKey key, Supplier<Optional<User>> loader) {
+        if (!enabled) {
+            return loader.get().map(this::toPrincipal).orElse(null);
+        }
+        return cache.get(key, ignored -> loader.get().map(this::toPrincipal).orElse(null));
+    }
+
+    private record PrincipalKey(String login, Long userId) {
+    }
 }
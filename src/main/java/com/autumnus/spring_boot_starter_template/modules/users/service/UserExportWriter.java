@@ -0,0 +1,118 @@
+package com.autumnus.spring_boot_starter_template.modules.users.service;
+
+import com.autumnus.spring_boot_starter_template.modules.users.dto.UserExportFormat;
+import com.autumnus.spring_boot_starter_template.modules.users.dto.UserResponse;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes exported users one row at a time. Output is only flushed when the buffer fills (and at the end), so the
+ * response is sent in large chunks and nothing but the current row is held in memory.
+ */
+@Component
+public class UserExportWriter {
+
+    private static final String CSV_HEADER = "id,email,username,active,emailVerified,roles,createdAt,updatedAt,"
+            + "lastLoginAt,passwordChangedAt,failedLoginAttempts,lockedUntil,profilePhoto";
+
+    private final ObjectWriter jsonWriter;
+
+    public UserExportWriter(ObjectMapper objectMapper) {
+        this.jsonWriter = objectMapper.writerFor(UserResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public long write(Stream<UserResponse> users, UserExportFormat format, OutputStream output) throws IOException {
+        return switch (format) {
+            case NDJSON -> writeNdjson(users.iterator(), output);
+            case CSV -> writeCsv(users.iterator(), output);
+        };
+    }
+
+    private long writeNdjson(Iterator<UserResponse> users, OutputStream output) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = jsonWriter.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (users.hasNext()) {
+                jsonWriter.writeValue(generator, users.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<UserResponse> users, OutputStream output) throws IOException {
+        long count = 0;
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (users.hasNext()) {
+            final UserResponse user = users.next();
+            writer.write(String.valueOf(user.getId()));
+            writeCsvField(writer, user.getEmail());
+            writeCsvField(writer, user.getUsername());
+            writeCsvField(writer, user.isActive());
+            writeCsvField(writer, user.isEmailVerified());
+            writeCsvField(writer, user.getRoles().stream()
+                    .map(RoleName::name)
+                    .sorted()
+                    .collect(Collectors.joining(" ")));
+            writeCsvField(writer, user.getCreatedAt());
+            writeCsvField(writer, user.getUpdatedAt());
+            writeCsvField(writer, user.getLastLoginAt());
+            writeCsvField(writer, user.getPasswordChangedAt());
+            writeCsvField(writer, user.getFailedLoginAttempts());
+            writeCsvField(writer, user.getLockedUntil());
+            writeCsvField(writer, user.getProfilePhotoUrl());
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Writes one field, quoting it when needed. Text a spreadsheet would evaluate as a formula (leading {@code =},
+     * {@code +}, {@code -}, {@code @}, tab or carriage return) is prefixed with {@code '} so it stays inert.
+     */
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (value instanceof CharSequence && isFormulaTrigger(text)) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean isFormulaTrigger(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        final char first = text.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+}
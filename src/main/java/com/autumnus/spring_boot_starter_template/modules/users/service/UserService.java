@@ -2,6 +2,7 @@ package com.autumnus.spring_boot_starter_template.modules.users.service;
 
 import com.autumnus.spring_boot_starter_template.modules.users.dto.ProfilePhotoUploadCommand;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UpdateProfileRequest;
+import com.autumnus.spring_boot_starter_template.modules.users.dto.UserExportFormat;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserCreateRequest;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserResponse;
 import com.autumnus.spring_boot_starter_template.modules.users.dto.UserUpdateRequest;
@@ -9,12 +10,27 @@ import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Optional;
 public interface UserService {
 
     Page<UserResponse> listUsers(Pageable pageable, RoleName role, Boolean active);
 
+    /**
+     * Keyset page of up to {@code size} users with an id greater than {@code afterId}, ordered by id, without a count.
+     */
+    Window<UserResponse> listUsersAfter(long afterId, int size, RoleName role, Boolean active);
+
+    /**
+     * Writes every matching user to {@code output} in id order, streaming rows from a database cursor.
+     *
+     * @return the number of users written
+     */
+    long exportUsers(RoleName role, Boolean active, UserExportFormat format, OutputStream output) throws IOException;
+
     UserResponse getUser(Long id);
 
     UserResponse createUser(UserCreateRequest request);
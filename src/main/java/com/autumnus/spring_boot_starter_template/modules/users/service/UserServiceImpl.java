@@ -1,5 +1,6 @@
 package com.autumnus.spring_boot_starter_template.modules.users.service;
 
+import com.autumnus.spring_boot_starter_template.common.bootstrap.ProfilePhotoManifestMigration;
 import com.autumnus.spring_boot_starter_template.common.exception.ResourceNotFoundException;
 import com.autumnus.spring_boot_starter_template.common.logging.annotation.AuditAction;
 import com.autumnus.spring_boot_starter_template.common.logging.annotation.Auditable;
@@ -7,7 +8,6 @@ import com.autumnus.spring_boot_starter_template.common.logging.context.AuditCon
 import com.autumnus.spring_boot_starter_template.common.messaging.NotificationProducer;
 import com.autumnus.spring_boot_starter_template.common.messaging.dto.NotificationMessage;
 import com.autumnus.spring_boot_starter_template.common.storage.dto.MediaAsset;
-import com.autumnus.spring_boot_starter_template.common.storage.exception.MediaStorageException;
 import com.autumnus.spring_boot_starter_template.common.storage.model.MediaKind;
 import com.autumnus.spring_boot_starter_template.common.storage.model.MediaManifest;
 import com.autumnus.spring_boot_starter_template.common.storage.model.MediaUpload;
@@ -18,23 +18,26 @@ import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
 import com.autumnus.spring_boot_starter_template.modules.users.entity.UserRoleAssignment;
 import com.autumnus.spring_boot_starter_template.modules.users.mapper.UserMapper;
-import com.autumnus.spring_boot_starter_template.modules.users.repository.RoleRepository;
 import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.UserView;
 import com.autumnus.spring_boot_starter_template.modules.users.repository.UserSpecifications;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -42,47 +45,70 @@ public class UserServiceImpl implements UserService {
 
     private static final int MAX_FAILED_ATTEMPTS = 5;
     private static final Duration LOCK_DURATION = Duration.ofMinutes(15);
+    private static final int EXPORT_FETCH_SIZE = 500;
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final MediaStorageService mediaStorageService;
-    private final ObjectMapper objectMapper;
     private final NotificationProducer notificationProducer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserExportWriter userExportWriter;
+    private final ProfilePhotoManifestMigration profilePhotoManifestMigration;
 
     public UserServiceImpl(
             UserRepository userRepository,
-            RoleRepository roleRepository,
+            RoleCatalog roleCatalog,
             UserMapper userMapper,
             PasswordEncoder passwordEncoder,
             MediaStorageService mediaStorageService,
-            ObjectMapper objectMapper,
-            NotificationProducer notificationProducer
+            NotificationProducer notificationProducer,
+            ApplicationEventPublisher eventPublisher,
+            UserExportWriter userExportWriter,
+            ProfilePhotoManifestMigration profilePhotoManifestMigration
     ) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleCatalog = roleCatalog;
         this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
         this.mediaStorageService = mediaStorageService;
-        this.objectMapper = objectMapper;
         this.notificationProducer = notificationProducer;
+        this.eventPublisher = eventPublisher;
+        this.userExportWriter = userExportWriter;
+        this.profilePhotoManifestMigration = profilePhotoManifestMigration;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<UserResponse> listUsers(Pageable pageable, RoleName role, Boolean active) {
-        final Specification<User> specification = Specification.where(UserSpecifications.withRole(role))
-                .and(UserSpecifications.withActive(active));
-        return userRepository.findAll(specification, pageable)
-                .map(user -> userMapper.toResponse(user, userMapper.extractRoleNames(user)));
+        return userRepository.findViews(listFilter(role, active), pageable).map(userMapper::toResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<UserResponse> listUsersAfter(long afterId, int size, RoleName role, Boolean active) {
+        return userRepository.findViewsAfter(listFilter(role, active), afterId, size).map(userMapper::toResponse);
+    }
+
+    /**
+     * Rows are projections, not entities, so the persistence context stays empty however many users are written.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(RoleName role, Boolean active, UserExportFormat format, OutputStream output)
+            throws IOException {
+        try (Stream<UserView> views = userRepository.streamViews(listFilter(role, active), EXPORT_FETCH_SIZE)) {
+            return userExportWriter.write(views.map(userMapper::toResponse), format, output);
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserResponse getUser(Long id) {
-        final User user = findEntityById(id);
-        return userMapper.toResponse(user, userMapper.extractRoleNames(user));
+        return userRepository.findViewById(id)
+                .map(userMapper::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 
     @Override
@@ -138,6 +164,7 @@ public class UserServiceImpl implements UserService {
             assignRoles(user, request.roles(), null);
         }
         final User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
         AuditContextHolder.setNewValue(userMapper.toResponse(saved, userMapper.extractRoleNames(saved)));
         return userMapper.toResponse(saved, userMapper.extractRoleNames(saved));
     }
@@ -156,6 +183,7 @@ public class UserServiceImpl implements UserService {
         user.markDeleted();
         user.setActive(false);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 
     @Override
@@ -198,6 +226,7 @@ public class UserServiceImpl implements UserService {
             user.setUsername(request.username());
         }
         final User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
         AuditContextHolder.setNewValue(userMapper.toResponse(saved, userMapper.extractRoleNames(saved)));
         return userMapper.toResponse(saved, userMapper.extractRoleNames(saved));
     }
@@ -214,10 +243,15 @@ public class UserServiceImpl implements UserService {
         final User user = findEntityById(id);
         AuditContextHolder.setEntityId(user.getId().toString());
         AuditContextHolder.setOldValue(userMapper.toResponse(user, userMapper.extractRoleNames(user)));
-        final MediaManifest existingManifest = parseManifest(user.getProfilePhotoManifest());
-        final MediaUpload upload = new MediaUpload(command.originalFilename(), command.contentType(), command.content());
+        final MediaManifest existingManifest = user.getProfilePhotoManifest();
+        final MediaUpload upload = new MediaUpload(
+                command.originalFilename(),
+                command.contentType(),
+                command.size(),
+                command.content());
         final MediaAsset asset = mediaStorageService.replace(existingManifest, MediaKind.IMAGE, "avatar", upload);
-        user.setProfilePhotoManifest(writeManifest(asset.manifest()));
+        user.setProfilePhotoManifest(asset.manifest());
+        profilePhotoManifestMigration.writeLegacy(user.getId(), asset.manifest());
         final User saved = userRepository.save(user);
         AuditContextHolder.setNewValue(userMapper.toResponse(saved, userMapper.extractRoleNames(saved)));
         return userMapper.toResponse(saved, userMapper.extractRoleNames(saved));
@@ -238,9 +272,9 @@ public class UserServiceImpl implements UserService {
             return;
         }
         AuditContextHolder.setOldValue(userMapper.toResponse(user, userMapper.extractRoleNames(user)));
-        final MediaManifest manifest = parseManifest(user.getProfilePhotoManifest());
-        mediaStorageService.delete(manifest);
+        mediaStorageService.delete(user.getProfilePhotoManifest());
         user.setProfilePhotoManifest(null);
+        profilePhotoManifestMigration.writeLegacy(user.getId(), null);
         final User saved = userRepository.save(user);
         AuditContextHolder.setNewValue(userMapper.toResponse(saved, userMapper.extractRoleNames(saved)));
     }
@@ -261,6 +295,7 @@ public class UserServiceImpl implements UserService {
         user.setLockedUntil(null);
         user.setFailedLoginAttempts(0);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
         AuditContextHolder.setNewValue(userMapper.toResponse(user, userMapper.extractRoleNames(user)));
     }
 
@@ -278,6 +313,7 @@ public class UserServiceImpl implements UserService {
         AuditContextHolder.setOldValue(userMapper.toResponse(user, userMapper.extractRoleNames(user)));
         user.setActive(false);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
         AuditContextHolder.setNewValue(userMapper.toResponse(user, userMapper.extractRoleNames(user)));
     }
 
@@ -308,33 +344,23 @@ public class UserServiceImpl implements UserService {
         userRepository.save(user);
     }
 
-    private MediaManifest parseManifest(String manifestJson) {
-        if (manifestJson == null) {
-            return null;
-        }
-        try {
-            return objectMapper.readValue(manifestJson, MediaManifest.class);
-        } catch (JsonProcessingException e) {
-            throw new MediaStorageException("Failed to parse stored media manifest", e);
-        }
-    }
-
-    private String writeManifest(MediaManifest manifest) {
-        try {
-            return objectMapper.writeValueAsString(manifest);
-        } catch (JsonProcessingException e) {
-            throw new MediaStorageException("Failed to persist media manifest", e);
-        }
+    private static Specification<User> listFilter(RoleName role, Boolean active) {
+        return Specification.where(UserSpecifications.withRole(role))
+                .and(UserSpecifications.withActive(active));
     }
 
     private void assignRoles(User user, Set<RoleName> roles, User assignedBy) {
         final Set<RoleName> targetRoles = (roles == null || roles.isEmpty())
                 ? Set.of(RoleName.USER)
                 : roles;
-        user.getRoleAssignments().clear();
+        user.getRoleAssignments().removeIf(assignment ->
+                !targetRoles.contains(roleCatalog.name(assignment.getRole().getId())));
+        final Set<RoleName> currentRoles = userMapper.extractRoleNames(user);
         for (RoleName roleName : targetRoles) {
-            final Role role = roleRepository.findByName(roleName)
-                    .orElseThrow(() -> new ResourceNotFoundException("Role not found"));
+            if (currentRoles.contains(roleName)) {
+                continue;
+            }
+            final Role role = roleCatalog.reference(roleName);
             final UserRoleAssignment assignment = new UserRoleAssignment();
             assignment.setUser(user);
             assignment.setRole(role);
@@ -0,0 +1,114 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Exercises collisions, backward-shift deletion and eviction within a single segment. With {@code maxBuckets = 512}
+ * every segment holds at most 8 buckets in 16 slots; keys with clear top bits all land in segment 0, and their low
+ * four bits pick the home slot.
+ */
+class BucketTableTest {
+
+    private static final long MAX_BUCKETS = 512;
+    private static final int SEGMENT_LIMIT = 8;
+
+    private final AtomicInteger created = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        created.set(0);
+    }
+
+    @Test
+    void collidingKeysKeepTheirOwnBuckets() {
+        final BucketTable table = table(Duration.ofHours(1));
+        final Bucket[] buckets = new Bucket[5];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = table.get(colliding(3, i), null);
+        }
+
+        for (int i = 0; i < buckets.length; i++) {
+            assertThat(table.get(colliding(3, i), null)).isSameAs(buckets[i]);
+        }
+        assertThat(created).hasValue(5);
+        assertThat(table.size()).isEqualTo(5);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void deletionKeepsWrappedProbeChainsReachable() throws InterruptedException {
+        final BucketTable table = table(Duration.ofHours(1));
+        // The chain starts at slot 14 and wraps to slot 0, so removing its head shifts entries back across the wrap.
+        final Bucket oldest = table.get(colliding(14, 0), null);
+        Thread.sleep(20);
+        final Bucket[] recent = new Bucket[SEGMENT_LIMIT - 1];
+        for (int i = 0; i < recent.length; i++) {
+            recent[i] = table.get(colliding(14, i + 1), null);
+        }
+
+        // The segment is full and nothing is idle: only the least recently used quarter (the oldest entry) goes.
+        table.get(colliding(14, SEGMENT_LIMIT), null);
+
+        assertThat(meterRegistry.get("cache.evictions").counter().count()).isEqualTo(1);
+        for (int i = 0; i < recent.length; i++) {
+            assertThat(table.get(colliding(14, i + 1), null)).isSameAs(recent[i]);
+        }
+        assertThat(table.get(colliding(14, 0), null)).isNotSameAs(oldest);
+    }
+
+    @Test
+    void idleEntriesAreSweptBeforeRecentOnes() throws InterruptedException {
+        final BucketTable table = table(Duration.ofMillis(10));
+        final Bucket[] buckets = new Bucket[SEGMENT_LIMIT];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = table.get(colliding(i * 2, 0), null);
+        }
+        Thread.sleep(20);
+        table.get(colliding(0, 0), null);
+        table.get(colliding(2, 0), null);
+
+        table.get(colliding(5, 0), null);
+
+        assertThat(meterRegistry.get("cache.evictions").counter().count()).isEqualTo(SEGMENT_LIMIT - 2);
+        assertThat(table.size()).isEqualTo(3);
+        assertThat(table.get(colliding(0, 0), null)).isSameAs(buckets[0]);
+        assertThat(table.get(colliding(2, 0), null)).isSameAs(buckets[1]);
+        assertThat(table.get(colliding(4, 0), null)).isNotSameAs(buckets[2]);
+    }
+
+    @Test
+    void segmentNeverGrowsBeyondItsLimit() {
+        final BucketTable table = table(Duration.ofHours(1));
+        for (int i = 0; i < 1_000; i++) {
+            table.get(colliding(i & 15, i), null);
+            assertThat(table.size()).isLessThanOrEqualTo(SEGMENT_LIMIT);
+        }
+        assertThat(meterRegistry.get("cache.evictions").counter().count()).isPositive();
+    }
+
+    private BucketTable table(Duration idleTimeout) {
+        return new BucketTable(MAX_BUCKETS, idleTimeout, (key, configuration) -> {
+            created.incrementAndGet();
+            return mock(Bucket.class);
+        }, meterRegistry);
+    }
+
+    /**
+     * A key in segment 0 whose home slot is {@code slot}; {@code discriminator} keeps keys with the same slot apart.
+     */
+    private static long colliding(int slot, int discriminator) {
+        return ((long) discriminator << 8) | slot;
+    }
+}
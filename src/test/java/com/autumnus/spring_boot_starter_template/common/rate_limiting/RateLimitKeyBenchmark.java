@@ -0,0 +1,110 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.github.bucket4j.local.SynchronizationStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original string key + Caffeine lookup with the packed 64-bit key + {@link BucketTable} lookup. Run with
+ * {@code -prof gc} to see the per-operation allocation rate, e.g. from the IDE or via {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitKeyBenchmark {
+
+    private static final String METHOD = "GET";
+    private static final String ROUTE = "/api/v1/users/{id}";
+    private static final String URI = "/api/v1/users/42";
+
+    @Param({"1024"})
+    public int clients;
+
+    private String[] addresses;
+    private String[] devices;
+    private BucketConfiguration configuration;
+    private Cache<String, Bucket> stringBuckets;
+    private BucketTable longBuckets;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        addresses = new String[clients];
+        devices = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            addresses[i] = "10.0." + (i >> 8) + "." + (i & 0xFF);
+            devices[i] = "device-" + i;
+        }
+        configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(1_000_000_000L, Refill.greedy(1_000_000_000L, Duration.ofSeconds(1))))
+                .build();
+        stringBuckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        longBuckets = new BucketTable(100_000, Duration.ofMinutes(10), (key, config) -> newBucket(config),
+                new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public boolean stringKey() {
+        final int client = next();
+        final String key = String.join(":", String.valueOf((long) client), addresses[client], devices[client], METHOD, URI);
+        return stringBuckets.get(key, ignored -> newBucket(configuration)).tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean packedKey() {
+        final int client = next();
+        long key = RateLimitKeys.start(7, 0, METHOD);
+        key = RateLimitKeys.withUser(key, client);
+        key = RateLimitKeys.withIp(key, addresses[client]);
+        key = RateLimitKeys.withDevice(key, devices[client]);
+        return longBuckets.get(RateLimitKeys.finish(key), configuration).tryConsume(1);
+    }
+
+    private int next() {
+        final int client = cursor;
+        cursor = client + 1 == clients ? 0 : client + 1;
+        return client;
+    }
+
+    private static Bucket newBucket(BucketConfiguration configuration) {
+        return Bucket.builder()
+                .withSynchronizationStrategy(SynchronizationStrategy.SYNCHRONIZED)
+                .addLimit(configuration.getBandwidths()[0])
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitKeyBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.autumnus.spring_boot_starter_template.common.rate_limiting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitKeysTest {
+
+    @Test
+    void packsDottedIpv4Literals() {
+        assertThat(RateLimitKeys.packIpv4("0.0.0.0")).isZero();
+        assertThat(RateLimitKeys.packIpv4("192.168.0.1")).isEqualTo(0xC0A80001L);
+        assertThat(RateLimitKeys.packIpv4("255.255.255.255")).isEqualTo(0xFFFFFFFFL);
+    }
+
+    @Test
+    void rejectsEverythingElse() {
+        for (String address : new String[]{
+                "256.0.0.1", "1.2.3", "1.2.3.4.5", "1..2.3", ".1.2.3", "1.2.3.", "1.2.3.4 ", "::1",
+                "::ffff:10.0.0.1", "fe80::1", "localhost"}) {
+            assertThat(RateLimitKeys.packIpv4(address)).as(address).isEqualTo(-1L);
+        }
+    }
+
+    @Test
+    void keysAreUniqueAcrossAddressFamiliesAndStages() {
+        final List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < 1 << 16; i++) {
+            addresses.add("10.0." + (i >>> 8) + '.' + (i & 0xFF));
+            addresses.add("2001:db8::" + Integer.toHexString(i));
+        }
+        addresses.add("::ffff:10.0.0.1");
+        addresses.add("::1");
+        addresses.add(null);
+        final long route = RateLimitKeys.start(1, 0, "GET");
+        final Set<Long> keys = new HashSet<>();
+
+        for (String address : addresses) {
+            assertThat(keys.add(RateLimitKeys.preAuth(address))).as("pre-auth %s", address).isTrue();
+            assertThat(keys.add(RateLimitKeys.finish(RateLimitKeys.withIp(route, address)))).as("route %s", address)
+                    .isTrue();
+        }
+        assertThat(keys).hasSize(addresses.size() * 2);
+    }
+
+    @Test
+    void routeMethodAndUserAreAllPartOfTheKey() {
+        final long base = RateLimitKeys.finish(RateLimitKeys.withUser(RateLimitKeys.start(1, 0, "GET"), 42));
+
+        assertThat(RateLimitKeys.finish(RateLimitKeys.withUser(RateLimitKeys.start(2, 0, "GET"), 42))).isNotEqualTo(base);
+        assertThat(RateLimitKeys.finish(RateLimitKeys.withUser(RateLimitKeys.start(1, 1, "GET"), 42))).isNotEqualTo(base);
+        assertThat(RateLimitKeys.finish(RateLimitKeys.withUser(RateLimitKeys.start(1, 0, "POST"), 42))).isNotEqualTo(base);
+        assertThat(RateLimitKeys.finish(RateLimitKeys.withUser(RateLimitKeys.start(1, 0, "GET"), 43))).isNotEqualTo(base);
+        assertThat(RateLimitKeys.finish(RateLimitKeys.withUser(RateLimitKeys.start(1, 0, "GET"),
+                RateLimitKeys.ANONYMOUS_USER))).isNotEqualTo(base);
+    }
+}
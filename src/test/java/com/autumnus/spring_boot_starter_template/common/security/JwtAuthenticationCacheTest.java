@@ -0,0 +1,61 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.PermissionRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserDetailsServiceImpl;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class JwtAuthenticationCacheTest {
+
+    private final UserPrincipal principal = UserPrincipal.fromToken(
+            1L, "user@example.com", "user", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    private JwtTokenProvider tokenProvider;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtAuthenticationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        final SecurityProperties properties = new SecurityProperties();
+        properties.setJwtSecret("authentication-cache-test-secret-authentication-cache");
+        tokenProvider = new JwtTokenProvider(
+                properties, new JwtKeyRing(properties), new AuthorityCodec(mock(PermissionRepository.class)));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new JwtAuthenticationCache(tokenProvider, mock(TokenRevocationRegistry.class),
+                mock(UserDetailsServiceImpl.class), properties, meterRegistry);
+    }
+
+    @Test
+    void refreshTokensAreRejectedAndNeverCached() {
+        final String refreshToken = tokenProvider.generateRefreshToken(principal);
+
+        assertThatThrownBy(() -> cache.authenticate(refreshToken)).isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> cache.authenticate(refreshToken)).isInstanceOf(UnauthorizedException.class);
+        assertThat(meterRegistry.get("cache.size").tag("cache", JwtAuthenticationCache.CACHE_NAME).gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void everyCallGetsItsOwnAuthenticatedCopy() {
+        final String accessToken = tokenProvider.generateAccessToken(principal);
+        final Authentication first = cache.authenticate(accessToken);
+        first.setAuthenticated(false);
+
+        final Authentication second = cache.authenticate(accessToken);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getPrincipal()).isSameAs(first.getPrincipal());
+        assertThat(second.getAuthorities()).isSameAs(first.getAuthorities());
+    }
+}
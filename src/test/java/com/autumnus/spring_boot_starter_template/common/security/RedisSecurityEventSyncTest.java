@@ -0,0 +1,108 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.RefreshTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.service.RoleCatalog;
+import com.autumnus.spring_boot_starter_template.modules.users.service.RolesChangedEvent;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserChangedEvent;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Publishes on one node and delivers the captured message to another, as Redis pub/sub would.
+ */
+class RedisSecurityEventSyncTest {
+
+    private static final String CHANNEL = "auth:token-revocations";
+
+    private StringRedisTemplate redisTemplate;
+    private RedisSecurityEventSync sender;
+    private TokenRevocationRegistry receiverRegistry;
+    private UserDetailsServiceImpl receiverUsers;
+    private RoleCatalog receiverRoles;
+    private RedisSecurityEventSync receiver;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        sender = new RedisSecurityEventSync(
+                redisTemplate, registry(), mock(UserDetailsServiceImpl.class), mock(RoleCatalog.class), CHANNEL);
+        receiverRegistry = registry();
+        receiverUsers = mock(UserDetailsServiceImpl.class);
+        receiverRoles = mock(RoleCatalog.class);
+        receiver = new RedisSecurityEventSync(
+                mock(StringRedisTemplate.class), receiverRegistry, receiverUsers, receiverRoles, CHANNEL);
+    }
+
+    @Test
+    void userWatermarkKeepsMillisecondPrecision() {
+        final Instant revokedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusMillis(250);
+
+        sender.publish(TokenRevocationEvent.forUser(5L, revokedAt));
+        deliver();
+
+        assertThat(receiverRegistry.isRevoked(5L, revokedAt.minusMillis(1))).isTrue();
+        assertThat(receiverRegistry.isRevoked(5L, revokedAt)).isFalse();
+    }
+
+    @Test
+    void revokedTokenDigestReachesTheFilter() {
+        final byte[] digest = TokenHash.sha256("refresh-token");
+
+        sender.publish(TokenRevocationEvent.forToken(digest));
+        deliver();
+
+        assertThat(receiverRegistry.mightBeRevoked(digest)).isTrue();
+    }
+
+    @Test
+    void userAndRoleChangesRefreshCaches() {
+        sender.publish(new UserChangedEvent(9L));
+        deliver();
+        verify(receiverUsers).evict(9L);
+
+        sender.publish(new RolesChangedEvent());
+        deliver();
+        verify(receiverRoles).load();
+    }
+
+    @Test
+    void malformedMessagesAreIgnored() {
+        receiver.onMessage(message("w:not-a-number"), null);
+        receiver.onMessage(message("x:unknown"), null);
+
+        verifyNoInteractions(receiverUsers, receiverRoles);
+    }
+
+    private void deliver() {
+        final ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, atLeastOnce()).convertAndSend(eq(CHANNEL), body.capture());
+        receiver.onMessage(message(body.getValue()), null);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.US_ASCII), body.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static TokenRevocationRegistry registry() {
+        return new TokenRevocationRegistry(new SecurityProperties(), mock(UserRepository.class),
+                mock(RefreshTokenRepository.class), mock(ApplicationEventPublisher.class));
+    }
+}
@@ -0,0 +1,50 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenFilterTest {
+
+    @Test
+    void addedDigestsAreAlwaysReported() {
+        final RevokedTokenFilter filter = new RevokedTokenFilter(10_000, 0.01, Duration.ofDays(1));
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(TokenHash.sha256("revoked-" + i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(TokenHash.sha256("revoked-" + i))).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredOne() {
+        final RevokedTokenFilter filter = new RevokedTokenFilter(10_000, 0.01, Duration.ofDays(1));
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(TokenHash.sha256("revoked-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(TokenHash.sha256("active-" + i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isPositive().isLessThan(2_000);
+    }
+
+    @Test
+    void digestSurvivesOneGenerationAndIsDroppedAfterTwo() throws InterruptedException {
+        final RevokedTokenFilter filter = new RevokedTokenFilter(100, 0.01, Duration.ofMillis(50));
+        final byte[] digest = TokenHash.sha256("revoked");
+        filter.add(digest);
+
+        Thread.sleep(60);
+        assertThat(filter.mightContain(digest)).isTrue();
+        Thread.sleep(60);
+        assertThat(filter.mightContain(digest)).isFalse();
+    }
+}
@@ -0,0 +1,86 @@
+package com.autumnus.spring_boot_starter_template.common.security;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.RefreshTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.TokenWatermark;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationRegistryTest {
+
+    private UserRepository userRepository;
+    private RefreshTokenRepository refreshTokenRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        registry = new TokenRevocationRegistry(new SecurityProperties(), userRepository, refreshTokenRepository,
+                eventPublisher);
+    }
+
+    @Test
+    void watermarkSplitsTokensIssuedWithinTheSameSecond() {
+        final Instant revokedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusMillis(500);
+        registry.apply(TokenRevocationEvent.forUser(7L, revokedAt));
+
+        assertThat(registry.isRevoked(7L, revokedAt.minusMillis(1))).isTrue();
+        assertThat(registry.isRevoked(7L, revokedAt.minusMillis(500))).isTrue();
+        assertThat(registry.isRevoked(7L, revokedAt)).isFalse();
+        assertThat(registry.isRevoked(7L, revokedAt.plusMillis(1))).isFalse();
+        assertThat(registry.isRevoked(7L, null)).isTrue();
+        assertThat(registry.isRevoked(8L, revokedAt.minusMillis(1))).isFalse();
+    }
+
+    @Test
+    void watermarkNeverMovesBackwards() {
+        final Instant later = Instant.now();
+        registry.apply(TokenRevocationEvent.forUser(7L, later));
+        registry.apply(TokenRevocationEvent.forUser(7L, later.minusSeconds(60)));
+
+        assertThat(registry.isRevoked(7L, later.minusMillis(1))).isTrue();
+    }
+
+    @Test
+    void revocationsArePublishedAndAppliedFromTheEvent() {
+        final byte[] digest = TokenHash.sha256("refresh-token");
+        registry.revokeToken(digest);
+        verify(eventPublisher).publishEvent(TokenRevocationEvent.forToken(digest));
+        assertThat(registry.mightBeRevoked(digest)).isFalse();
+
+        registry.onRevocation(TokenRevocationEvent.forToken(digest));
+
+        assertThat(registry.mightBeRevoked(digest)).isTrue();
+        assertThat(registry.mightBeRevoked(TokenHash.sha256("other-token"))).isFalse();
+    }
+
+    @Test
+    void loadRestoresWatermarksAndRevokedTokens() {
+        final Instant revokedAt = Instant.now().minusSeconds(5);
+        final byte[] digest = TokenHash.sha256("revoked-before-restart");
+        when(userRepository.findTokenWatermarksSince(any())).thenReturn(List.of(new TokenWatermark(3L, revokedAt)));
+        when(refreshTokenRepository.streamRevokedTokenHashes(any())).thenReturn(Stream.of(digest));
+
+        registry.load();
+
+        assertThat(registry.isRevoked(3L, revokedAt.minusMillis(1))).isTrue();
+        assertThat(registry.isRevoked(3L, revokedAt)).isFalse();
+        assertThat(registry.mightBeRevoked(digest)).isTrue();
+    }
+}
@@ -0,0 +1,130 @@
+package com.autumnus.spring_boot_starter_template.common.storage.service;
+
+import com.autumnus.spring_boot_starter_template.common.storage.config.MediaProcessingProperties;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaVariant;
+import com.autumnus.spring_boot_starter_template.common.storage.model.MediaVariantDefinition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.coobird.thumbnailator.Thumbnails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Variant rendering for a 12 MP (4000×3000) photo-like JPEG or PNG: every variant resized from a full-size normalized
+ * copy of the source (the previous behaviour) versus {@link ImageVariantRenderer}'s cascade. The renderer gets a single
+ * worker so both sides measure CPU time on one core. {@code main} adds the GC profiler; compare
+ * {@code gc.alloc.rate.norm} (bytes allocated per render) alongside the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ImageVariantBenchmark {
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    private Path source;
+    private ImageVariantRenderer renderer;
+
+    @Setup
+    public void setUp() throws IOException {
+        final BufferedImage image = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setPaint(new GradientPaint(0, 0, new Color(30, 90, 160), 4000, 3000, new Color(220, 180, 90)));
+            graphics.fillRect(0, 0, 4000, 3000);
+            final Random random = new Random(42);
+            for (int i = 0; i < 2_000; i++) {
+                graphics.setColor(new Color(random.nextInt(0x1000000)));
+                graphics.fillOval(random.nextInt(4000), random.nextInt(3000), 20 + random.nextInt(200), 20 + random.nextInt(200));
+            }
+        } finally {
+            graphics.dispose();
+        }
+        source = Files.createTempFile("image-variant-benchmark-", "." + format);
+        ImageIO.write(image, format, source.toFile());
+
+        final MediaProcessingProperties properties = new MediaProcessingProperties();
+        properties.setThreads(1);
+        renderer = new ImageVariantRenderer(properties, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        renderer.destroy();
+        Files.deleteIfExists(source);
+    }
+
+    @Benchmark
+    public Map<MediaVariant, byte[]> perVariantFromOriginal() throws IOException {
+        final BufferedImage original = ImageIO.read(source.toFile());
+        final Map<MediaVariant, byte[]> variants = new EnumMap<>(MediaVariant.class);
+        for (MediaVariantDefinition definition : MediaStorageService.IMAGE_VARIANTS) {
+            final BufferedImage normalized = "jpg".equals(format) ? toRgb(original) : original;
+            final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            Thumbnails.of(normalized)
+                    .size(definition.maxWidth(), definition.maxHeight())
+                    .outputFormat(format)
+                    .outputQuality(definition.quality())
+                    .keepAspectRatio(true)
+                    .toOutputStream(stream);
+            variants.put(definition.variant(), stream.toByteArray());
+        }
+        return variants;
+    }
+
+    @Benchmark
+    public Map<MediaVariant, byte[]> cascaded() {
+        return renderer.render(source, format, MediaStorageService.IMAGE_VARIANTS).join();
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        final BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = converted.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return converted;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ImageVariantBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
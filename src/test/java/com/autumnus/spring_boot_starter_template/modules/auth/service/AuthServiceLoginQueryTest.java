@@ -0,0 +1,178 @@
+package com.autumnus.spring_boot_starter_template.modules.auth.service;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.common.security.AuthorityCodec;
+import com.autumnus.spring_boot_starter_template.common.security.JwtAuthenticationCache;
+import com.autumnus.spring_boot_starter_template.common.security.JwtKeyRing;
+import com.autumnus.spring_boot_starter_template.common.security.JwtTokenProvider;
+import com.autumnus.spring_boot_starter_template.common.security.TokenRevocationRegistry;
+import com.autumnus.spring_boot_starter_template.modules.auth.dto.LoginRequest;
+import com.autumnus.spring_boot_starter_template.modules.auth.dto.RefreshTokenRequest;
+import com.autumnus.spring_boot_starter_template.modules.auth.dto.TokenResponse;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.Permission;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.Role;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.RoleName;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.User;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.UserRoleAssignment;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.EmailVerificationTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.PasswordResetTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.PermissionRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.RefreshTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.RoleRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.service.RoleCatalog;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserDetailsServiceImpl;
+import com.autumnus.spring_boot_starter_template.modules.users.service.UserService;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Counts the JDBC statements a login issues: one query for the user with its role assignments, one UPDATE for the
+ * login state (including a re-hashed password when the stored cost is below the current one) and one INSERT for the
+ * refresh token. A refresh reads the user only when its principal is not cached yet.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthServiceLoginQueryTest {
+
+    private static final String PASSWORD = "Secret123!";
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private EmailVerificationTokenRepository emailVerificationTokenRepository;
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private AuthService authService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(5);
+        final SecurityProperties properties = new SecurityProperties();
+        properties.setJwtSecret("login-query-test-secret-login-query-test-secret");
+        final JwtTokenProvider tokenProvider = new JwtTokenProvider(
+                properties, new JwtKeyRing(properties), new AuthorityCodec(permissionRepository));
+        final TokenService tokenService = new TokenServiceImpl(
+                refreshTokenRepository,
+                userRepository,
+                tokenProvider,
+                properties,
+                mock(JwtAuthenticationCache.class),
+                mock(TokenRevocationRegistry.class));
+        final RoleCatalog roleCatalog = new RoleCatalog(roleRepository);
+        authService = new AuthServiceImpl(
+                mock(UserService.class),
+                userRepository,
+                new UserDetailsServiceImpl(userRepository, roleCatalog, properties, new SimpleMeterRegistry()),
+                tokenProvider,
+                tokenService,
+                emailVerificationTokenRepository,
+                passwordResetTokenRepository,
+                properties,
+                passwordEncoder,
+                mock(ApplicationEventPublisher.class));
+        transaction.executeWithoutResult(status -> seedUser(new BCryptPasswordEncoder(4).encode(PASSWORD)));
+        roleCatalog.load();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void loginIssuesThreeStatements() {
+        final TokenResponse response = transaction.execute(status ->
+                authService.login(new LoginRequest("login@example.com", PASSWORD, "junit", "127.0.0.1")));
+
+        assertThat(response.accessToken()).isNotBlank();
+        assertThat(response.refreshToken()).isNotBlank();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    @Test
+    void loginUpgradesLowerCostHash() {
+        final LoginRequest request = new LoginRequest("login@example.com", PASSWORD, "junit", "127.0.0.1");
+        transaction.execute(status -> authService.login(request));
+        final String upgraded = userRepository.findByEmail("login@example.com").orElseThrow().getPasswordHash();
+        transaction.execute(status -> authService.login(request));
+
+        assertThat(upgraded).startsWith("$2a$05$");
+        assertThat(userRepository.findByEmail("login@example.com").orElseThrow().getPasswordHash()).isEqualTo(upgraded);
+    }
+
+    @Test
+    void refreshReadsUserOnlyOnCacheMiss() {
+        final TokenResponse login = transaction.execute(status ->
+                authService.login(new LoginRequest("login@example.com", PASSWORD, "junit", "127.0.0.1")));
+        statistics.clear();
+        final TokenResponse first = transaction.execute(status ->
+                authService.refreshToken(new RefreshTokenRequest(login.refreshToken())));
+        final long firstStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        transaction.execute(status -> authService.refreshToken(new RefreshTokenRequest(first.refreshToken())));
+
+        assertThat(firstStatements).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void seedUser(String passwordHash) {
+        for (String table : new String[]{"refresh_tokens", "user_roles", "role_permissions", "users", "roles", "permissions"}) {
+            entityManager.createNativeQuery("delete from " + table).executeUpdate();
+        }
+        final Permission permission = new Permission();
+        permission.setName("users:read");
+        permission.setResource("users");
+        permission.setAction("read");
+        entityManager.persist(permission);
+        final Role role = new Role();
+        role.setName(RoleName.USER);
+        role.getPermissions().add(permission);
+        entityManager.persist(role);
+        final User user = new User();
+        user.setEmail("login@example.com");
+        user.setUsername("login");
+        user.setPasswordHash(passwordHash);
+        entityManager.persist(user);
+        final UserRoleAssignment assignment = new UserRoleAssignment();
+        assignment.setUser(user);
+        assignment.setRole(role);
+        user.getRoleAssignments().add(assignment);
+        entityManager.persist(assignment);
+    }
+}
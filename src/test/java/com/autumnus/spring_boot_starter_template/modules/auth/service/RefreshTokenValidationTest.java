@@ -0,0 +1,114 @@
+package com.autumnus.spring_boot_starter_template.modules.auth.service;
+
+import com.autumnus.spring_boot_starter_template.common.config.SecurityProperties;
+import com.autumnus.spring_boot_starter_template.common.security.JwtAuthenticationCache;
+import com.autumnus.spring_boot_starter_template.common.security.JwtTokenProvider;
+import com.autumnus.spring_boot_starter_template.common.security.ParsedToken;
+import com.autumnus.spring_boot_starter_template.common.security.TokenHash;
+import com.autumnus.spring_boot_starter_template.common.security.TokenRevocationEvent;
+import com.autumnus.spring_boot_starter_template.common.security.TokenRevocationRegistry;
+import com.autumnus.spring_boot_starter_template.modules.users.entity.RefreshToken;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.RefreshTokenRepository;
+import com.autumnus.spring_boot_starter_template.modules.users.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * A Bloom filter hit is only a hint: {@link TokenServiceImpl#validateRefreshToken} must confirm it against the stored
+ * row, and must not touch the database when the filter rules the token out. The filter is sized for a single entry so
+ * false positives are easy to find.
+ */
+class RefreshTokenValidationTest {
+
+    private static final String REVOKED = "revoked-refresh-token";
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private TokenRevocationRegistry registry;
+    private TokenService tokenService;
+    private final Instant issuedAt = Instant.now();
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        final SecurityProperties properties = new SecurityProperties();
+        properties.getRevocation().setExpectedRevokedTokens(1);
+        properties.getRevocation().setFalsePositiveRate(0.5);
+        registry = new TokenRevocationRegistry(properties, mock(UserRepository.class), refreshTokenRepository,
+                mock(ApplicationEventPublisher.class));
+        registry.onRevocation(TokenRevocationEvent.forToken(TokenHash.sha256(REVOKED)));
+        final JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+        when(tokenProvider.parse(anyString())).thenReturn(new ParsedToken(1L, "1", "user@example.com", "user",
+                List.of(), null, null, ParsedToken.TYPE_REFRESH, issuedAt, issuedAt.plusSeconds(3600)));
+        tokenService = new TokenServiceImpl(
+                refreshTokenRepository,
+                mock(UserRepository.class),
+                tokenProvider,
+                properties,
+                mock(JwtAuthenticationCache.class),
+                registry);
+    }
+
+    @Test
+    void tokenRuledOutByTheFilterSkipsTheDatabase() {
+        final String token = tokenWhere(false);
+
+        assertThat(tokenService.validateRefreshToken(token).userId()).isEqualTo(1L);
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void falsePositiveFallsThroughToTheActiveRow() {
+        final String token = tokenWhere(true);
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(new RefreshToken()));
+
+        assertThat(tokenService.validateRefreshToken(token).userId()).isEqualTo(1L);
+        verify(refreshTokenRepository).findByTokenHash(TokenHash.sha256(token));
+    }
+
+    @Test
+    void filterHitConfirmedByTheDatabaseIsRejected() {
+        final RefreshToken revoked = new RefreshToken();
+        revoked.setRevoked(true);
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(revoked));
+
+        assertThatThrownBy(() -> tokenService.validateRefreshToken(REVOKED))
+                .isInstanceOfSatisfying(TokenValidationException.class,
+                        ex -> assertThat(ex.getCode()).isEqualTo("REFRESH_TOKEN_REVOKED"));
+    }
+
+    @Test
+    void tokenIssuedBeforeTheWatermarkIsRejectedWithoutTheDatabase() {
+        registry.onRevocation(TokenRevocationEvent.forUser(1L, issuedAt.plusMillis(1)));
+
+        assertThatThrownBy(() -> tokenService.validateRefreshToken(tokenWhere(false)))
+                .isInstanceOfSatisfying(TokenValidationException.class,
+                        ex -> assertThat(ex.getCode()).isEqualTo("REFRESH_TOKEN_REVOKED"));
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    /**
+     * A token other than {@link #REVOKED} for which the filter reports {@code flagged}.
+     */
+    private String tokenWhere(boolean flagged) {
+        for (int i = 0; ; i++) {
+            final String candidate = "refresh-token-" + i;
+            if (registry.mightBeRevoked(TokenHash.sha256(candidate)) == flagged) {
+                return candidate;
+            }
+        }
+    }
+}